@@ -3,11 +3,17 @@ package mcmultipart;
 import com.google.common.collect.Lists;
 import mcmultipart.api.item.ItemBlockMultipart;
 import mcmultipart.api.multipart.IMultipart;
+import mcmultipart.block.ConcurrentPartTicker;
+import mcmultipart.block.PartTickScheduler;
+import mcmultipart.block.ScheduledPartTicker;
 import mcmultipart.multipart.MultipartRegistry;
 import mcmultipart.multipart.MultipartRegistry.WrappedBlock;
 import mcmultipart.network.MultipartNetworkHandler;
+import mcmultipart.profiler.PartTickProfiler;
+import mcmultipart.profiler.ProfilerCommand;
 import net.minecraft.block.BlockState;
 import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.player.PlayerEntityMP;
 import net.minecraft.item.BlockItemUseContext;
 import net.minecraft.item.BucketItem;
 import net.minecraft.item.ItemStack;
@@ -21,11 +27,15 @@ import net.minecraft.util.math.BlockRayTraceResult;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.common.util.BlockSnapshot;
 import net.minecraftforge.event.ForgeEventFactory;
+import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.fml.LogicalSidedProvider;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.event.server.FMLServerStartingEvent;
+import net.minecraftforge.fml.event.server.FMLServerStoppedEvent;
 import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
@@ -55,11 +65,47 @@ public class MCMPCommonProxy {
 
     @SubscribeEvent
     public void onServerTick(TickEvent.ServerTickEvent e) {
-        if (e.phase == TickEvent.Phase.END) {
+        if (e.phase == TickEvent.Phase.START) {
+            PartTickProfiler.onServerTick();
+            PartTickScheduler.onServerTickStart();
+        } else if (e.phase == TickEvent.Phase.END) {
+            PartTickScheduler.onServerTickEnd();
             MultipartNetworkHandler.flushChanges();
         }
     }
 
+    @SubscribeEvent
+    public void onWorldTick(TickEvent.WorldTickEvent e) {
+        if (e.phase == TickEvent.Phase.END && e.side == LogicalSide.SERVER) {
+            ScheduledPartTicker.tick(e.world);
+            ConcurrentPartTicker.run();
+        }
+    }
+
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload event) {
+        if (!event.getWorld().isRemote()) {
+            ScheduledPartTicker.onWorldUnload(event.getWorld());
+            PartTickScheduler.onWorldUnload(event.getWorld());
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerStopped(FMLServerStoppedEvent event) {
+        ScheduledPartTicker.onServerStopped();
+        PartTickScheduler.onServerStopped();
+    }
+
+    @SubscribeEvent
+    public void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        MultipartNetworkHandler.onPlayerLoggedIn((PlayerEntityMP) event.getPlayer());
+    }
+
+    @SubscribeEvent
+    public void onServerStarting(FMLServerStartingEvent event) {
+        ProfilerCommand.register(event.getCommandDispatcher());
+    }
+
     @SubscribeEvent
     public void onPlayerRightClickBlock(PlayerInteractEvent.RightClickBlock event) {
         PlayerEntity player = event.getEntityPlayer();
@@ -0,0 +1,130 @@
+package mcmultipart;
+
+import net.minecraftforge.common.ForgeConfigSpec;
+import net.minecraftforge.fml.config.ModConfig;
+
+public class MCMPConfig {
+
+    public static final ForgeConfigSpec SPEC;
+
+    private static final ForgeConfigSpec.IntValue TICKING_DOWNGRADE_DELAY;
+    private static final ForgeConfigSpec.BooleanValue PROFILE_PART_TICKS;
+    private static final ForgeConfigSpec.IntValue PART_TICK_BUDGET;
+    private static final ForgeConfigSpec.BooleanValue THROTTLE_SLOW_PARTS;
+    private static final ForgeConfigSpec.BooleanValue AMORTIZE_PART_TICKS;
+    private static final ForgeConfigSpec.IntValue PART_TICK_TIME_BUDGET;
+    private static final ForgeConfigSpec.IntValue CONCURRENT_PART_TICK_THREADS;
+    private static final ForgeConfigSpec.IntValue CHANGE_PACKET_SIZE;
+    private static final ForgeConfigSpec.IntValue CHANGE_COMPRESSION_THRESHOLD;
+
+    // Values are copied out of the spec whenever it's (re)loaded, as they're read on hot paths
+    private static int tickingDowngradeDelay = 20;
+    private static boolean profilePartTicks = false;
+    private static long partTickBudget = 0;
+    private static boolean throttleSlowParts = false;
+    private static boolean amortizePartTicks = false;
+    private static long partTickTimeBudget = 10000000L;
+    private static int concurrentPartTickThreads = 0;
+    private static int changePacketSize = 32768;
+    private static int changeCompressionThreshold = 1024;
+
+    static {
+        ForgeConfigSpec.Builder builder = new ForgeConfigSpec.Builder();
+
+        builder.push("performance");
+        TICKING_DOWNGRADE_DELAY = builder
+                .comment("Ticks a container waits without any ticking parts before switching to a non-ticking tile entity.",
+                        "Avoids replacing the tile entity when tickable parts are added and removed in quick succession. 0 switches immediately.")
+                .defineInRange("tickingDowngradeDelay", 20, 0, 72000);
+        AMORTIZE_PART_TICKS = builder
+                .comment("Once parts have used up the tick time budget, defer the ticks of the parts that allow it to later ticks.")
+                .define("amortizePartTicks", false);
+        PART_TICK_TIME_BUDGET = builder
+                .comment("Time in microseconds all the ticking parts on the server may take per tick before ticks get deferred.")
+                .defineInRange("partTickTimeBudget", 10000, 0, 1000000);
+        CONCURRENT_PART_TICK_THREADS = builder
+                .comment("Threads used for the concurrent ticks of parts that support them. 0 uses one less than the number of cores,",
+                        "1 runs them on the server thread.")
+                .defineInRange("concurrentPartTickThreads", 0, 0, 256);
+        builder.pop();
+
+        builder.push("network");
+        CHANGE_PACKET_SIZE = builder
+                .comment("Size in bytes after which the part changes sent for a chunk are split into more packets.",
+                        "Changes to the same block are never split up.")
+                .defineInRange("changePacketSize", 32768, 1024, 1000000);
+        CHANGE_COMPRESSION_THRESHOLD = builder
+                .comment("Size in bytes from which the part changes sent to players that support it are compressed. 0 disables compression.")
+                .defineInRange("changeCompressionThreshold", 1024, 0, 1000000);
+        builder.pop();
+
+        builder.push("profiling");
+        PROFILE_PART_TICKS = builder
+                .comment("Record how long each ticking part takes, per part type and position. See /mcmultipart profile.")
+                .define("profilePartTicks", false);
+        PART_TICK_BUDGET = builder
+                .comment("Time in microseconds a single part may spend in its tick before the watchdog reports it. 0 disables the watchdog.")
+                .defineInRange("partTickBudget", 0, 0, 1000000);
+        THROTTLE_SLOW_PARTS = builder
+                .comment("Skip the following ticks of parts that went over the budget, proportionally to how far over they went.")
+                .define("throttleSlowParts", false);
+        builder.pop();
+
+        SPEC = builder.build();
+    }
+
+    public static void onConfigChanged(ModConfig.ModConfigEvent event) {
+        if (event.getConfig().getSpec() != SPEC) {
+            return;
+        }
+        tickingDowngradeDelay = TICKING_DOWNGRADE_DELAY.get();
+        profilePartTicks = PROFILE_PART_TICKS.get();
+        partTickBudget = PART_TICK_BUDGET.get() * 1000L;
+        throttleSlowParts = THROTTLE_SLOW_PARTS.get();
+        amortizePartTicks = AMORTIZE_PART_TICKS.get();
+        partTickTimeBudget = PART_TICK_TIME_BUDGET.get() * 1000L;
+        concurrentPartTickThreads = CONCURRENT_PART_TICK_THREADS.get();
+        changePacketSize = CHANGE_PACKET_SIZE.get();
+        changeCompressionThreshold = CHANGE_COMPRESSION_THRESHOLD.get();
+    }
+
+    public static int tickingDowngradeDelay() {
+        return tickingDowngradeDelay;
+    }
+
+    public static boolean profilePartTicks() {
+        return profilePartTicks;
+    }
+
+    // In nanoseconds, 0 if disabled
+    public static long partTickBudget() {
+        return partTickBudget;
+    }
+
+    public static boolean throttleSlowParts() {
+        return throttleSlowParts;
+    }
+
+    public static boolean amortizePartTicks() {
+        return amortizePartTicks;
+    }
+
+    // In nanoseconds
+    public static long partTickTimeBudget() {
+        return partTickTimeBudget;
+    }
+
+    public static int concurrentPartTickThreads() {
+        return concurrentPartTickThreads;
+    }
+
+    public static int changePacketSize() {
+        return changePacketSize;
+    }
+
+    // 0 if disabled
+    public static int changeCompressionThreshold() {
+        return changeCompressionThreshold;
+    }
+
+}
@@ -39,6 +39,7 @@ import net.minecraftforge.fml.ModList;
 import net.minecraftforge.fml.ModLoadingContext;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
+import net.minecraftforge.fml.config.ModConfig;
 import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.minecraftforge.fml.event.lifecycle.FMLLoadCompleteEvent;
 import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
@@ -48,7 +49,9 @@ import net.minecraftforge.forgespi.language.ModFileScanData;
 import net.minecraftforge.items.CapabilityItemHandler;
 import net.minecraftforge.registries.ForgeRegistry;
 import net.minecraftforge.registries.GameData;
+import net.minecraftforge.registries.IForgeRegistry;
 import net.minecraftforge.registries.RegistryBuilder;
+import net.minecraftforge.registries.RegistryManager;
 import org.apache.logging.log4j.Logger;
 import org.objectweb.asm.Type;
 
@@ -61,6 +64,9 @@ import java.util.Objects;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -70,9 +76,9 @@ public class MCMultiPart {
     public static final String MODID = "mcmultipart", NAME = "MCMultiPart", VERSION = "%VERSION%";
     public static final SimpleChannel channel = NetworkRegistry.newSimpleChannel(
             new ResourceLocation(MCMultiPart.MODID, "network"),
-            () -> "1.0.0",
-            s -> s.equals("1.0.0"),
-            s -> s.equals("1.0.0")
+            () -> "1.1.0",
+            s -> s.equals("1.1.0"),
+            s -> s.equals("1.1.0")
     );
     public static MCMPCommonProxy proxy;
     public static Logger log;
@@ -90,6 +96,9 @@ public class MCMultiPart {
     public MCMultiPart() {
         MinecraftForge.EVENT_BUS.register(this);
 
+        ModLoadingContext.get().registerConfig(ModConfig.Type.COMMON, MCMPConfig.SPEC);
+        FMLJavaModLoadingContext.get().getModEventBus().addListener(MCMPConfig::onConfigChanged);
+
         addons = getAnnotatedClasses(MCMPAddon.class).stream().map(aClass -> {
             try {
                 return aClass.getConstructor().newInstance();
@@ -156,6 +165,11 @@ public class MCMultiPart {
                 .setName(new ResourceLocation(MODID, "slots"))//
                 .setIDRange(0, Short.MAX_VALUE)//
                 .setType(IPartSlot.class)//
+                .add((IForgeRegistry.BakeCallback<IPartSlot>) (owner, stage) -> {
+                    if (stage == RegistryManager.ACTIVE) {
+                        SlotRegistry.INSTANCE.computeAccess();
+                    }
+                })//
                 .create();
 
         microMaterialRegistry = (ForgeRegistry<MicroMaterial>) new RegistryBuilder<MicroMaterial>()//
@@ -212,6 +226,23 @@ public class MCMultiPart {
                 .bindTo(SlotRegistry.INSTANCE);
         ObfuscationReflectionHelper.setPrivateValue(SlotUtil.class, null, viewSide, "viewSide");
         ObfuscationReflectionHelper.setPrivateValue(SlotUtil.class, null, viewEdge, "viewEdge");
+        bindSlotView("viewContainerInt", "viewSideInt", ToIntFunction.class, IntBinaryOperator.class, int.class, Direction.class);
+        bindSlotView("viewContainerInt", "viewEdgeInt", ToIntFunction.class, IntBinaryOperator.class, int.class, EnumEdgeSlot.class,
+                Direction.class);
+        bindSlotView("viewContainerAny", "viewSideAny", Predicate.class, Direction.class);
+        bindSlotView("viewContainerAny", "viewEdgeAny", Predicate.class, EnumEdgeSlot.class, Direction.class);
+        bindSlotView("viewContainerAll", "viewSideAll", Predicate.class, Direction.class);
+        bindSlotView("viewContainerAll", "viewEdgeAll", Predicate.class, EnumEdgeSlot.class, Direction.class);
+        bindSlotView("viewContainerFirst", "viewSideFirst", Function.class, Direction.class);
+        bindSlotView("viewContainerFirst", "viewEdgeFirst", Function.class, EnumEdgeSlot.class, Direction.class);
+    }
+
+    private static void bindSlotView(String method, String field, Class<?>... params) throws Exception {
+        Class<?>[] types = new Class<?>[params.length + 1];
+        types[0] = ISlottedContainer.class;
+        System.arraycopy(params, 0, types, 1, params.length);
+        MethodHandle handle = MethodHandles.lookup().unreflect(SlotRegistry.class.getMethod(method, types)).bindTo(SlotRegistry.INSTANCE);
+        ObfuscationReflectionHelper.setPrivateValue(SlotUtil.class, null, handle, field);
     }
 
 }
\ No newline at end of file
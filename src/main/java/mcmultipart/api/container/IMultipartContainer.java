@@ -64,4 +64,25 @@ public interface IMultipartContainer extends ISlottedContainer<IPartInfo> {
         }
     }
 
+    default void notifyShapeChange(IPartInfo part) {
+    }
+
+    // Called by parts whose redstone output changed without a state change, before notifying their neighbors. Parts that
+    // return false from IMultipart#hasTileDependentRedstone must call this whenever their tile data changes their output,
+    // the container may otherwise keep returning the previous one.
+    default void notifyRedstoneChange(IPartInfo part) {
+    }
+
+    default void scheduleTick(IPartInfo part, int delay) {
+        getPartWorld().getPendingBlockTicks().scheduleTick(getPartPos(), part.getState().getBlock(), delay);
+    }
+
+    // Stops ticking the part until it's woken up explicitly, a part in the container changes or a neighbor updates.
+    // Parts should go to sleep after changing their state, as state changes wake everything up.
+    default void sleepPart(IPartInfo part) {
+    }
+
+    default void wakePart(IPartInfo part) {
+    }
+
 }
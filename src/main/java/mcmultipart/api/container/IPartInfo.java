@@ -37,4 +37,24 @@ public interface IPartInfo {
         getContainer().notifyChange(this);
     }
 
+    default void notifyShapeChange() {
+        getContainer().notifyShapeChange(this);
+    }
+
+    default void notifyRedstoneChange() {
+        getContainer().notifyRedstoneChange(this);
+    }
+
+    default void scheduleTick(int delay) {
+        getContainer().scheduleTick(this, delay);
+    }
+
+    default void sleep() {
+        getContainer().sleepPart(this);
+    }
+
+    default void wakeUp() {
+        getContainer().wakePart(this);
+    }
+
 }
@@ -23,6 +23,7 @@ import net.minecraft.world.IBlockReader;
 import net.minecraft.world.World;
 
 import javax.annotation.Nullable;
+import java.util.Random;
 
 @SuppressWarnings("deprecation")
 public interface IMultipart {
@@ -64,12 +65,37 @@ public interface IMultipart {
         return asBlock().getCollisionShape(i.getState(), i.getPartWorld(), i.getPartPos(), context);
     }
 
+    // Containers cache the merged shapes of their parts. Return true if this part's shapes vary with the entity in the selection context.
+    default boolean isShapeContextDependent(IPartInfo i) {
+        return false;
+    }
+
     default VoxelShape getRenderShape(PartInfo i) {
         return asBlock().getRenderShape(i.getState(), i.getPartWorld(), i.getPartPos());
     }
 
+    // Return true if this part's occlusion shape never leaves the bounds of its slot (see SlotRegistry#getSlotBounds), so
+    // the intersection test against other such parts can be skipped for slot pairs that can't intersect.
+    default boolean isOcclusionWithinSlot(IPartInfo i) {
+        return false;
+    }
+
     default boolean testIntersection(IPartInfo part1, IPartInfo part2) {
-        return MultipartOcclusionHelper.testShapeIntersection(part1.getPart().getOcclusionShape(part1), part2.getPart().getOcclusionShape(part2));
+        return MultipartOcclusionHelper.testOcclusionIntersection(part1, part2);
+    }
+
+    // Containers cache the light, opacity, enchanting bonus, burning and fertility values of their parts until a part's
+    // state or tile changes. Return true if this part's values depend on the world instead. Explosion resistance and
+    // ladders depend on the entity or explosion, so those are always queried.
+    default boolean hasWorldDependentProperties(IPartInfo i) {
+        return false;
+    }
+
+    // Containers cache the redstone output of their parts only while none of them returns true here. Parts with a tile
+    // are assumed to depend on its data, return false if the output only changes along with the state or if the part
+    // calls IPartInfo#notifyRedstoneChange whenever the tile data changes it.
+    default boolean hasTileDependentRedstone(IPartInfo i) {
+        return i.getTile() != null;
     }
 
     @Nullable
@@ -94,6 +120,11 @@ public interface IMultipart {
         asBlock().neighborChanged(i.getState(), i.getPartWorld(), i.getPartPos(), blockIn, fromPos, bool);
     }
 
+    // Scheduled tick, see IPartInfo#scheduleTick
+    default void tick(IPartInfo i, Random random) {
+        asBlock().tick(i.getState(), i.getPartWorld(), i.getPartPos(), random);
+    }
+
     default float getPlayerRelativePartHardness(IPartInfo i, RayTraceResult hitInfo, PlayerEntity player) {
         return asBlock().getPlayerRelativeBlockHardness(i.getState(), player, i.getPartWorld(), i.getPartPos());
     }
@@ -37,6 +37,25 @@ public interface IMultipartTile {
         return asTileEntity() instanceof ITickableTileEntity ? (ITickableTileEntity) asTileEntity() : null;
     }
 
+    // How many ticks may pass between two ticks of this part. Anything above 1 lets the tick scheduler skip ticks
+    // under load, the part should then use the world time instead of counting its own ticks.
+    default int getPartTickInterval() {
+        return 1;
+    }
+
+    // Tickable parts that return true also get concurrentPartTick() called at the end of each world tick, off the server
+    // thread and in parallel with other parts. It must only touch the part's own state. Once every part is done,
+    // postConcurrentPartTick() is called on the server thread, where the results can be applied to the world.
+    default boolean hasConcurrentPartTick() {
+        return false;
+    }
+
+    default void concurrentPartTick() {
+    }
+
+    default void postConcurrentPartTick() {
+    }
+
     default void setPartInfo(IPartInfo info) {
     }
 
@@ -3,6 +3,7 @@ package mcmultipart.api.multipart;
 import mcmultipart.api.container.IMultipartContainer;
 import mcmultipart.api.slot.EnumEdgeSlot;
 import mcmultipart.api.slot.SlotUtil;
+import mcmultipart.block.TileMultipartContainer;
 import mcmultipart.capability.CapabilityJoiner;
 import net.minecraft.util.Direction;
 import net.minecraftforge.common.capabilities.Capability;
@@ -21,6 +22,9 @@ public class MultipartCapabilityHelper {
     }
 
     public static <T> LazyOptional<T> getCapability(IMultipartContainer container, Capability<T> capability, Direction face) {
+        if (container instanceof TileMultipartContainer) {
+            return ((TileMultipartContainer) container).getPartCapability(capability, face);
+        }
         T v = SlotUtil.viewContainer(container, i -> {
             if (i.getTile() != null) {
                 LazyOptional<T> optional = i.getTile().getPartCapability(capability, face);
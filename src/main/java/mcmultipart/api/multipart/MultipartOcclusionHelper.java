@@ -1,12 +1,17 @@
 package mcmultipart.api.multipart;
 
+import com.google.common.collect.ImmutableList;
 import mcmultipart.api.container.IMultipartContainer;
 import mcmultipart.api.container.IPartInfo;
 import mcmultipart.api.slot.IPartSlot;
+import mcmultipart.multipart.PartInfo;
+import mcmultipart.slot.SlotRegistry;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.shapes.VoxelShape;
 import net.minecraft.world.IWorldReader;
 
+import java.util.List;
 import java.util.function.Predicate;
 
 public class MultipartOcclusionHelper {
@@ -14,13 +19,29 @@ public class MultipartOcclusionHelper {
     private static final Predicate<IPartSlot> NEVER = a -> false;
 
     public static boolean testShapeIntersection(VoxelShape shape1, VoxelShape shape2) {
-        return shape1.toBoundingBoxList().stream().anyMatch(b1 -> shape2.toBoundingBoxList().stream().anyMatch(b1::intersects));
+        return OcclusionBoxes.of(shape1).intersects(OcclusionBoxes.of(shape2));
+    }
+
+    public static boolean testOcclusionIntersection(IPartInfo part1, IPartInfo part2) {
+        return getOcclusionBoxes(part1).intersects(getOcclusionBoxes(part2));
+    }
+
+    public static OcclusionBoxes getOcclusionBoxes(IPartInfo part) {
+        return part instanceof PartInfo ? ((PartInfo) part).getOcclusionBoxes() : OcclusionBoxes.of(part.getPart().getOcclusionShape(part));
     }
 
     public static boolean testPartIntersection(IPartInfo part1, IPartInfo part2) {
+        if (part1.getPart().isOcclusionWithinSlot(part1) && part2.getPart().isOcclusionWithinSlot(part2)
+                && SlotRegistry.INSTANCE.areSlotsDisjoint(getSlotID(part1), getSlotID(part2))) {
+            return false;
+        }
         return part1.getPart().testIntersection(part1, part2) || part2.getPart().testIntersection(part2, part1);
     }
 
+    private static int getSlotID(IPartInfo part) {
+        return part instanceof PartInfo ? ((PartInfo) part).getSlotID() : SlotRegistry.INSTANCE.getSlotID(part.getSlot());
+    }
+
     public static boolean testContainerShapeIntersection(IWorldReader world, BlockPos pos, VoxelShape shape) {
         return testContainerShapeIntersection(world, pos, shape, NEVER);
     }
@@ -34,9 +55,10 @@ public class MultipartOcclusionHelper {
     }
 
     public static boolean testContainerShapeIntersection(IMultipartContainer container, VoxelShape shape, Predicate<IPartSlot> ignore) {
+        OcclusionBoxes boxes = OcclusionBoxes.of(shape);
         return container.getParts().values().stream()
                 .filter(i -> !ignore.test(i.getSlot()))
-                .anyMatch(i -> testShapeIntersection(i.getPart().getOcclusionShape(i), shape));
+                .anyMatch(i -> getOcclusionBoxes(i).intersects(boxes));
     }
 
     public static boolean testContainerPartIntersection(IWorldReader world, BlockPos pos, IPartInfo part) {
@@ -55,4 +77,47 @@ public class MultipartOcclusionHelper {
         return container.getParts().values().stream().filter(i -> !ignore.test(i.getSlot())).anyMatch(i -> testPartIntersection(part, i));
     }
 
+    // A shape decomposed into its boxes once, along with its overall bounds for a cheap broad-phase check
+    public static final class OcclusionBoxes {
+
+        public static final OcclusionBoxes EMPTY = new OcclusionBoxes(ImmutableList.of(), null);
+
+        private final List<AxisAlignedBB> boxes;
+        private final AxisAlignedBB bounds;
+
+        private OcclusionBoxes(List<AxisAlignedBB> boxes, AxisAlignedBB bounds) {
+            this.boxes = boxes;
+            this.bounds = bounds;
+        }
+
+        public static OcclusionBoxes of(VoxelShape shape) {
+            if (shape.isEmpty()) {
+                return EMPTY;
+            }
+            return new OcclusionBoxes(ImmutableList.copyOf(shape.toBoundingBoxList()), shape.getBoundingBox());
+        }
+
+        public List<AxisAlignedBB> getBoxes() {
+            return boxes;
+        }
+
+        public boolean intersects(OcclusionBoxes other) {
+            if (bounds == null || other.bounds == null || !bounds.intersects(other.bounds)) {
+                return false;
+            }
+            for (AxisAlignedBB box1 : boxes) {
+                if (!box1.intersects(other.bounds)) {
+                    continue;
+                }
+                for (AxisAlignedBB box2 : other.boxes) {
+                    if (box1.intersects(box2)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+    }
+
 }
@@ -3,6 +3,7 @@ package mcmultipart.api.multipart;
 import mcmultipart.api.container.IMultipartContainer;
 import mcmultipart.api.slot.EnumEdgeSlot;
 import mcmultipart.api.slot.SlotUtil;
+import mcmultipart.block.TileMultipartContainer;
 import net.minecraft.block.BlockState;
 import net.minecraft.util.Direction;
 import net.minecraft.util.math.BlockPos;
@@ -13,33 +14,51 @@ public class MultipartRedstoneHelper {
     // Multipart-only lookups
 
     public static boolean canConnectRedstone(IMultipartContainer container, Direction side) {
-        return SlotUtil.viewContainer(container, i -> i.getPart().canConnectRedstone(i, side),
-                l -> l.stream().anyMatch(c -> c), false, true, side);
+        if (container instanceof TileMultipartContainer) {
+            TileMultipartContainer tile = (TileMultipartContainer) container;
+            return tile.getRedstone().canConnectRedstone(tile, side, side);
+        }
+        return SlotUtil.viewContainerAny(container, i -> i.getPart().canConnectRedstone(i, side), side);
     }
 
     public static int getWeakPower(IMultipartContainer container, Direction side) {
-        return SlotUtil.viewContainer(container, i -> i.getPart().getWeakPower(i, side),
-                l -> l.stream().max(Integer::compare).orElse(0), 0, true, side);
+        if (container instanceof TileMultipartContainer) {
+            TileMultipartContainer tile = (TileMultipartContainer) container;
+            return tile.getRedstone().getWeakPower(tile, side, side);
+        }
+        return SlotUtil.viewContainerInt(container, i -> i.getPart().getWeakPower(i, side), Math::max, 0, side);
     }
 
     public static int getStrongPower(IMultipartContainer container, Direction side) {
-        return SlotUtil.viewContainer(container, i -> i.getPart().getStrongPower(i, side),
-                l -> l.stream().max(Integer::compare).orElse(0), 0, true, side);
+        if (container instanceof TileMultipartContainer) {
+            TileMultipartContainer tile = (TileMultipartContainer) container;
+            return tile.getRedstone().getStrongPower(tile, side, side);
+        }
+        return SlotUtil.viewContainerInt(container, i -> i.getPart().getStrongPower(i, side), Math::max, 0, side);
     }
 
     public static boolean canConnectRedstone(IMultipartContainer container, EnumEdgeSlot edge, Direction side) {
-        return SlotUtil.viewContainer(container, i -> i.getPart().canConnectRedstone(i, side),
-                l -> l.stream().anyMatch(c -> c), false, true, edge, side);
+        if (container instanceof TileMultipartContainer) {
+            TileMultipartContainer tile = (TileMultipartContainer) container;
+            return tile.getRedstone().canConnectRedstone(tile, edge, side);
+        }
+        return SlotUtil.viewContainerAny(container, i -> i.getPart().canConnectRedstone(i, side), edge, side);
     }
 
     public static int getWeakPower(IMultipartContainer container, EnumEdgeSlot edge, Direction side) {
-        return SlotUtil.viewContainer(container, i -> i.getPart().getWeakPower(i, side),
-                l -> l.stream().max(Integer::compare).orElse(0), 0, true, edge, side);
+        if (container instanceof TileMultipartContainer) {
+            TileMultipartContainer tile = (TileMultipartContainer) container;
+            return tile.getRedstone().getWeakPower(tile, edge, side);
+        }
+        return SlotUtil.viewContainerInt(container, i -> i.getPart().getWeakPower(i, side), Math::max, 0, edge, side);
     }
 
     public static int getStrongPower(IMultipartContainer container, EnumEdgeSlot edge, Direction side) {
-        return SlotUtil.viewContainer(container, i -> i.getPart().getStrongPower(i, side),
-                l -> l.stream().max(Integer::compare).orElse(0), 0, true, edge, side);
+        if (container instanceof TileMultipartContainer) {
+            TileMultipartContainer tile = (TileMultipartContainer) container;
+            return tile.getRedstone().getStrongPower(tile, edge, side);
+        }
+        return SlotUtil.viewContainerInt(container, i -> i.getPart().getStrongPower(i, side), Math::max, 0, edge, side);
     }
 
     // Multipart lookups with world fallback
@@ -6,10 +6,14 @@ import net.minecraft.util.Direction;
 import java.lang.invoke.MethodHandle;
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 public class SlotUtil {
 
     private static MethodHandle viewSide, viewEdge;
+    private static MethodHandle viewSideInt, viewEdgeInt, viewSideAny, viewEdgeAny, viewSideAll, viewEdgeAll, viewSideFirst, viewEdgeFirst;
 
     public static <T, O> O viewContainer(ISlottedContainer<T> container, Function<T, O> converter, Function<List<O>, O> joiner, O startVal,
                                          boolean ignoreNull, Direction face) {
@@ -29,4 +33,72 @@ public class SlotUtil {
         }
     }
 
+    // Reduces an int from the parts, e.g. Math::max for redstone power. Nothing is boxed.
+    public static <T> int viewContainerInt(ISlottedContainer<T> container, ToIntFunction<T> converter, IntBinaryOperator reducer, int startVal,
+                                           Direction face) {
+        try {
+            return (int) viewSideInt.invoke(container, converter, reducer, startVal, face);
+        } catch (Throwable e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    public static <T> int viewContainerInt(ISlottedContainer<T> container, ToIntFunction<T> converter, IntBinaryOperator reducer, int startVal,
+                                           EnumEdgeSlot edge, Direction face) {
+        try {
+            return (int) viewEdgeInt.invoke(container, converter, reducer, startVal, edge, face);
+        } catch (Throwable e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    public static <T> boolean viewContainerAny(ISlottedContainer<T> container, Predicate<T> predicate, Direction face) {
+        try {
+            return (boolean) viewSideAny.invoke(container, predicate, face);
+        } catch (Throwable e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    public static <T> boolean viewContainerAny(ISlottedContainer<T> container, Predicate<T> predicate, EnumEdgeSlot edge, Direction face) {
+        try {
+            return (boolean) viewEdgeAny.invoke(container, predicate, edge, face);
+        } catch (Throwable e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    public static <T> boolean viewContainerAll(ISlottedContainer<T> container, Predicate<T> predicate, Direction face) {
+        try {
+            return (boolean) viewSideAll.invoke(container, predicate, face);
+        } catch (Throwable e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    public static <T> boolean viewContainerAll(ISlottedContainer<T> container, Predicate<T> predicate, EnumEdgeSlot edge, Direction face) {
+        try {
+            return (boolean) viewEdgeAll.invoke(container, predicate, edge, face);
+        } catch (Throwable e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    // The first non-null value in access order, without joining
+    public static <T, O> O viewContainerFirst(ISlottedContainer<T> container, Function<T, O> converter, Direction face) {
+        try {
+            return (O) viewSideFirst.invoke(container, converter, face);
+        } catch (Throwable e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    public static <T, O> O viewContainerFirst(ISlottedContainer<T> container, Function<T, O> converter, EnumEdgeSlot edge, Direction face) {
+        try {
+            return (O) viewEdgeFirst.invoke(container, converter, edge, face);
+        } catch (Throwable e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
 }
@@ -5,7 +5,6 @@ import mcmultipart.RayTraceHelper;
 import mcmultipart.api.container.IMultipartContainerBlock;
 import mcmultipart.api.container.IPartInfo;
 import mcmultipart.api.slot.IPartSlot;
-import mcmultipart.api.slot.SlotUtil;
 import mcmultipart.multipart.PartInfo;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockRenderType;
@@ -42,6 +41,7 @@ import javax.annotation.Nullable;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.ToDoubleFunction;
@@ -235,10 +235,12 @@ public class BlockMultipartContainer extends Block implements IMultipartContaine
         if (side == null) {
             return false;
         }
-        return getTile(world, pos)
-                .map(t -> SlotUtil.viewContainer(t, i -> i.getPart().canConnectRedstone(i, side),
-                        l -> l.stream().anyMatch(c -> c), false, true, side.getOpposite()))
-                .orElse(false);
+        TileEntity te = world.getTileEntity(pos);
+        if (te instanceof TileMultipartContainer) {
+            TileMultipartContainer tile = (TileMultipartContainer) te;
+            return tile.getRedstone().canConnectRedstone(tile, side.getOpposite(), side);
+        }
+        return false;
     }
 
     @Override
@@ -246,8 +248,12 @@ public class BlockMultipartContainer extends Block implements IMultipartContaine
         if (side == null) {
             return 0;
         }
-        return getTile(world, pos).map(t -> SlotUtil.viewContainer(t, i -> i.getPart().getWeakPower(i, side),
-                l -> l.stream().max(Integer::compare).orElse(0), 0, true, side.getOpposite())).orElse(0);
+        TileEntity te = world.getTileEntity(pos);
+        if (te instanceof TileMultipartContainer) {
+            TileMultipartContainer tile = (TileMultipartContainer) te;
+            return tile.getRedstone().getWeakPower(tile, side.getOpposite(), side);
+        }
+        return 0;
     }
 
     @Override
@@ -255,10 +261,12 @@ public class BlockMultipartContainer extends Block implements IMultipartContaine
         if (side == null) {
             return 0;
         }
-        return getTile(world, pos)
-                .map(t -> SlotUtil.viewContainer(t, i -> i.getPart().getStrongPower(i, side),
-                        l -> l.stream().max(Integer::compare).orElse(0), 0, true, side.getOpposite()))
-                .orElse(0);
+        TileEntity te = world.getTileEntity(pos);
+        if (te instanceof TileMultipartContainer) {
+            TileMultipartContainer tile = (TileMultipartContainer) te;
+            return tile.getRedstone().getStrongPower(tile, side.getOpposite(), side);
+        }
+        return 0;
     }
 
     @Override
@@ -294,6 +302,10 @@ public class BlockMultipartContainer extends Block implements IMultipartContaine
 
     @Override
     public float getEnchantPowerBonus(BlockState state, IWorldReader world, BlockPos pos) {
+        ContainerProperties properties = getProperties(world, pos);
+        if (properties != null) {
+            return properties.getEnchantPowerBonus();
+        }
         return addF(world, pos, i -> i.getPart().getEnchantPowerBonus(i), Float.POSITIVE_INFINITY);
     }
 
@@ -304,6 +316,10 @@ public class BlockMultipartContainer extends Block implements IMultipartContaine
 
     //    @Override
     public int getLightOpacity(BlockState state, IWorldReader world, BlockPos pos) {
+        ContainerProperties properties = getProperties(world, pos);
+        if (properties != null) {
+            return properties.getLightOpacity();
+        }
         if (callingLightOpacity) {
             return add(world, pos, i -> i.getPart().getLightOpacity(i), 255);
         }
@@ -315,6 +331,10 @@ public class BlockMultipartContainer extends Block implements IMultipartContaine
 
     //    @Override
     public int getLightValue(BlockState state, IWorldReader world, BlockPos pos) {
+        ContainerProperties properties = getProperties(world, pos);
+        if (properties != null) {
+            return properties.getLightValue();
+        }
         if (callingLightValue) {
             return max(world, pos, i -> i.getPart().getLightValue(i.getState()));
         }
@@ -340,11 +360,19 @@ public class BlockMultipartContainer extends Block implements IMultipartContaine
 
     @Override
     public boolean isBurning(BlockState state, IBlockReader world, BlockPos pos) {
+        ContainerProperties properties = getProperties(world, pos);
+        if (properties != null) {
+            return properties.isBurning();
+        }
         return anyMatch(world, pos, i -> i.getPart().isBurning(i));
     }
 
     @Override
     public boolean isFertile(BlockState state, IBlockReader world, BlockPos pos) {
+        ContainerProperties properties = getProperties(world, pos);
+        if (properties != null) {
+            return properties.isFertile();
+        }
         return anyMatch(world, pos, i -> i.getPart().isFertile(i));
     }
 
@@ -373,9 +401,23 @@ public class BlockMultipartContainer extends Block implements IMultipartContaine
 
     @Override
     public void neighborChanged(BlockState state, World worldIn, BlockPos pos, Block blockIn, BlockPos fromPos, boolean bool) {
+        TileEntity te = worldIn.getTileEntity(pos);
+        if (te instanceof TileMultipartContainer) {
+            TileMultipartContainer tile = (TileMultipartContainer) te;
+            tile.invalidateRedstone(); // Outputs commonly depend on inputs
+            tile.wakeParts();
+        }
         forEach(worldIn, pos, i -> i.getPart().neighborChanged(i, blockIn, fromPos, bool));
     }
 
+    @Override
+    public void tick(BlockState state, World worldIn, BlockPos pos, Random random) {
+        TileEntity te = worldIn.getTileEntity(pos);
+        if (te instanceof TileMultipartContainer) {
+            ((TileMultipartContainer) te).tickScheduledParts(random);
+        }
+    }
+
     @Override
     public void onEntityCollision(BlockState state, World worldIn, BlockPos pos, Entity entityIn) {
         //TODO
@@ -383,45 +425,54 @@ public class BlockMultipartContainer extends Block implements IMultipartContaine
 
     @Override
     public VoxelShape getShape(BlockState state, IBlockReader world, BlockPos pos, ISelectionContext context) {
-        return getTile(world, pos).map(tile -> {
-            final VoxelShape[] shape = {VoxelShapes.empty()};
-            tile.getParts().values().forEach(part -> shape[0] = VoxelShapes.or(shape[0], part.getPart().getShape(part, context)));
-            return shape[0];
-        }).orElse(VoxelShapes.empty());
+        return getTile(world, pos).map(tile -> tile.getShape(context)).orElse(VoxelShapes.empty());
     }
 
     @Override
     public VoxelShape getCollisionShape(BlockState state, IBlockReader world, BlockPos pos, ISelectionContext context) {
-        return getTile(world, pos).map(tile -> {
-            final VoxelShape[] shape = {VoxelShapes.empty()};
-            tile.getParts().values().forEach(part -> shape[0] = VoxelShapes.or(shape[0], part.getPart().getCollisionShape(part, context)));
-            return shape[0];
-        }).orElse(VoxelShapes.empty());
+        return getTile(world, pos).map(tile -> tile.getCollisionShape(context)).orElse(VoxelShapes.empty());
+    }
+
+    @Nullable
+    private ContainerProperties getProperties(IBlockReader world, BlockPos pos) {
+        TileEntity te = world.getTileEntity(pos);
+        return te instanceof TileMultipartContainer ? ((TileMultipartContainer) te).getProperties() : null;
     }
 
     private void forEach(IBlockReader world, BlockPos pos, Consumer<PartInfo> consumer) {
-        getTile(world, pos).ifPresent(t -> t.getParts().values().forEach(consumer));
+        getTile(world, pos).ifPresent(t -> t.forEachPart(consumer));
     }
 
     private boolean anyMatch(IBlockReader world, BlockPos pos, Predicate<PartInfo> predicate) {
-        return getTile(world, pos).map(t -> t.getParts().values().stream().anyMatch(predicate)).orElse(false);
+        return getTile(world, pos).map(t -> t.anyPartMatch(predicate)).orElse(false);
     }
 
     private boolean allMatch(IBlockReader world, BlockPos pos, Predicate<PartInfo> predicate) {
-        return getTile(world, pos).map(t -> t.getParts().values().stream().allMatch(predicate)).orElse(false);
+        return getTile(world, pos).map(t -> t.getPartCount() > 0 && !t.anyPartMatch(predicate.negate())).orElse(false);
     }
 
     private int add(IBlockReader world, BlockPos pos, ToIntFunction<PartInfo> converter, int max) {
-        return Math.min(getTile(world, pos).map(t -> t.getParts().values().stream().mapToInt(converter).reduce(0, (a, b) -> a + b)).orElse(0), max);
+        return getTile(world, pos).map(t -> {
+            int[] sum = {0};
+            t.forEachPart(i -> sum[0] += converter.applyAsInt(i));
+            return Math.min(sum[0], max);
+        }).orElse(0);
     }
 
     private int max(IBlockReader world, BlockPos pos, ToIntFunction<PartInfo> converter) {
-        return getTile(world, pos).map(t -> t.getParts().values().stream().mapToInt(converter).max().orElse(0)).orElse(0);
+        return getTile(world, pos).map(t -> {
+            int[] max = {0};
+            t.forEachPart(i -> max[0] = Math.max(max[0], converter.applyAsInt(i)));
+            return max[0];
+        }).orElse(0);
     }
 
     private float addF(IBlockReader world, BlockPos pos, ToDoubleFunction<PartInfo> converter, double max) {
-        return (float) Math.min(getTile(world, pos).map(t -> t.getParts().values().stream().mapToDouble(converter).reduce(0D, (a, b) -> a + b))
-                .orElse(0D).floatValue(), max);
+        return getTile(world, pos).map(t -> {
+            double[] sum = {0D};
+            t.forEachPart(i -> sum[0] += converter.applyAsDouble(i));
+            return (float) Math.min(sum[0], max);
+        }).orElse(0F);
     }
 
 }
\ No newline at end of file
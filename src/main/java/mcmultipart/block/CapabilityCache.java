@@ -0,0 +1,88 @@
+package mcmultipart.block;
+
+import mcmultipart.api.slot.SlotUtil;
+import mcmultipart.capability.CapabilityJoiner;
+import net.minecraft.util.Direction;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.util.LazyOptional;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+// Capabilities exposed by the parts of a container, resolved once per (capability, face) and invalidated as a whole
+// when the parts change or one of the part capabilities they were built from is invalidated
+final class CapabilityCache {
+
+    private static final int FACES = Direction.values().length + 1; // The last index is used for the null face
+
+    private final TileMultipartContainer container;
+    private final Map<Capability<?>, LazyOptional<?>[]> cache = new IdentityHashMap<>();
+    // Part optionals already listened to, parts usually hand out the same one every time and each listener pins the
+    // container. LazyOptional doesn't override equals, so this is by identity, and weak so removed parts don't linger.
+    private final Set<LazyOptional<?>> listening = Collections.newSetFromMap(new WeakHashMap<>());
+
+    CapabilityCache(TileMultipartContainer container) {
+        this.container = container;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> LazyOptional<T> get(Capability<T> capability, @Nullable Direction face) {
+        LazyOptional<?>[] optionals = cache.computeIfAbsent(capability, c -> new LazyOptional<?>[FACES]);
+        int index = face != null ? face.getIndex() : FACES - 1;
+        LazyOptional<T> optional = (LazyOptional<T>) optionals[index];
+        if (optional == null) {
+            optionals[index] = optional = resolve(capability, face);
+        }
+        return optional;
+    }
+
+    private <T> LazyOptional<T> resolve(Capability<T> capability, @Nullable Direction face) {
+        List<LazyOptional<T>> sources = new ArrayList<>(2);
+        T value = SlotUtil.viewContainer(container, i -> {
+            if (i.getTile() != null) {
+                LazyOptional<T> optional = i.getTile().getPartCapability(capability, face);
+                if (optional.isPresent()) {
+                    sources.add(optional);
+                    return optional.orElseThrow(NullPointerException::new);
+                }
+            }
+            return null;
+        }, l -> CapabilityJoiner.join(capability, l), null, true, face);
+        if (value == null) {
+            return LazyOptional.empty();
+        }
+        for (LazyOptional<T> source : sources) {
+            if (listening.add(source)) {
+                source.addListener(o -> {
+                    listening.remove(o);
+                    container.invalidateCapabilities();
+                });
+            }
+        }
+        return LazyOptional.of(() -> value);
+    }
+
+    void invalidate() {
+        if (cache.isEmpty()) {
+            return;
+        }
+        // Clear before notifying, listeners are likely to query the container again
+        List<LazyOptional<?>> invalidated = new ArrayList<>();
+        for (LazyOptional<?>[] optionals : cache.values()) {
+            for (LazyOptional<?> optional : optionals) {
+                if (optional != null && optional != LazyOptional.empty()) { // Never invalidate the shared empty instance
+                    invalidated.add(optional);
+                }
+            }
+        }
+        cache.clear();
+        invalidated.forEach(LazyOptional::invalidate);
+    }
+
+}
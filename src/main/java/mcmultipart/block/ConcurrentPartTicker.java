@@ -0,0 +1,88 @@
+package mcmultipart.block;
+
+import mcmultipart.MCMPConfig;
+import mcmultipart.MCMultiPart;
+import mcmultipart.api.multipart.IMultipartTile;
+import mcmultipart.multipart.PartInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+// Runs the concurrent ticks of the parts that opted into them (see IMultipartTile#hasConcurrentPartTick) as one
+// fork-join batch at the end of each world tick, then their post-tick on the server thread once all of them are done
+public final class ConcurrentPartTicker {
+
+    private static final List<PartInfo> batch = new ArrayList<>();
+    private static final List<IMultipartTile> tiles = new ArrayList<>();
+    private static ForkJoinPool pool;
+    private static int poolSize;
+
+    private ConcurrentPartTicker() {
+    }
+
+    static void enqueue(PartInfo[] parts, int count) {
+        for (int i = 0; i < count; i++) {
+            batch.add(parts[i]);
+        }
+    }
+
+    public static void run() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Parts may have been removed or put to sleep by whatever ticked after their container
+        for (PartInfo info : batch) {
+            TileMultipartContainer container = info.getContainer();
+            if (container != null && !container.isRemoved() && container.getPartInfo(info.getSlotID()) == info && !info.isSleeping()
+                    && info.getTile() != null && info.getTile().hasConcurrentPartTick()) {
+                tiles.add(info.getTile());
+            }
+        }
+        batch.clear();
+        try {
+            ForkJoinPool pool = getPool();
+            if (pool == null || tiles.size() == 1) {
+                tiles.forEach(IMultipartTile::concurrentPartTick);
+            } else {
+                pool.submit(() -> tiles.parallelStream().forEach(IMultipartTile::concurrentPartTick)).get();
+            }
+            tiles.forEach(IMultipartTile::postConcurrentPartTick);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while ticking parts", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Exception ticking parts concurrently", e.getCause());
+        } finally {
+            tiles.clear();
+        }
+    }
+
+    // Null if the concurrent ticks should run on the server thread
+    private static ForkJoinPool getPool() {
+        int threads = MCMPConfig.concurrentPartTickThreads();
+        if (threads == 0) {
+            threads = Runtime.getRuntime().availableProcessors() - 1;
+        }
+        if (threads <= 1) {
+            return null;
+        }
+        if (pool == null || poolSize != threads) {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            poolSize = threads;
+            pool = new ForkJoinPool(threads, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("MCMultiPart Part Ticker #" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                thread.setContextClassLoader(MCMultiPart.class.getClassLoader()); // Mod classes aren't visible from the system loader
+                return thread;
+            }, null, false);
+        }
+        return pool;
+    }
+
+}
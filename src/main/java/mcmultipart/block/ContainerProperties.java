@@ -0,0 +1,64 @@
+package mcmultipart.block;
+
+import mcmultipart.multipart.PartInfo;
+
+// Block properties aggregated over all the parts in a container, computed once and dropped whenever a part changes
+public final class ContainerProperties {
+
+    static final ContainerProperties DYNAMIC = new ContainerProperties(0, 0, 0, false, false);
+
+    private final int lightValue, lightOpacity;
+    private final float enchantPowerBonus;
+    private final boolean burning, fertile;
+
+    // Explosion resistance and ladders aren't cached, they depend on the entity or explosion
+    private ContainerProperties(int lightValue, int lightOpacity, float enchantPowerBonus, boolean burning, boolean fertile) {
+        this.lightValue = lightValue;
+        this.lightOpacity = lightOpacity;
+        this.enchantPowerBonus = enchantPowerBonus;
+        this.burning = burning;
+        this.fertile = fertile;
+    }
+
+    static ContainerProperties compute(TileMultipartContainer container) {
+        int lightValue = 0, lightOpacity = 0;
+        double enchantPowerBonus = 0;
+        boolean burning = false, fertile = false;
+        for (int id = 0; id < container.getSlotCapacity(); id++) {
+            PartInfo i = container.getPartInfo(id);
+            if (i == null) {
+                continue;
+            }
+            if (i.getPart().hasWorldDependentProperties(i)) {
+                return DYNAMIC;
+            }
+            lightValue = Math.max(lightValue, i.getPart().getLightValue(i));
+            lightOpacity += i.getPart().getLightOpacity(i);
+            enchantPowerBonus += i.getPart().getEnchantPowerBonus(i);
+            burning |= i.getPart().isBurning(i);
+            fertile |= i.getPart().isFertile(i);
+        }
+        return new ContainerProperties(lightValue, Math.min(lightOpacity, 255), (float) enchantPowerBonus, burning, fertile);
+    }
+
+    public int getLightValue() {
+        return lightValue;
+    }
+
+    public int getLightOpacity() {
+        return lightOpacity;
+    }
+
+    public float getEnchantPowerBonus() {
+        return enchantPowerBonus;
+    }
+
+    public boolean isBurning() {
+        return burning;
+    }
+
+    public boolean isFertile() {
+        return fertile;
+    }
+
+}
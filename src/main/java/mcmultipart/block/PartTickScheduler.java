@@ -0,0 +1,106 @@
+package mcmultipart.block;
+
+import mcmultipart.MCMPConfig;
+import mcmultipart.multipart.PartInfo;
+import mcmultipart.profiler.PartTickProfiler;
+import net.minecraft.tileentity.ITickableTileEntity;
+import net.minecraft.world.IWorld;
+
+import java.util.ArrayDeque;
+
+// Spreads the ticks of parts that don't need to tick every tick (see IMultipartTile#getPartTickInterval) when the
+// parts have used up the per-tick time budget. Deferred parts are ticked at the end of the server tick if there's budget
+// left, and by their container once their interval is up no matter what. Only used on the server thread.
+public final class PartTickScheduler {
+
+    private static final ArrayDeque<PartInfo> deferred = new ArrayDeque<>();
+    private static long currentTick = 0;
+    private static long timeSpent = 0;
+
+    private PartTickScheduler() {
+    }
+
+    public static boolean isEnabled() {
+        return MCMPConfig.amortizePartTicks();
+    }
+
+    public static void onServerTickStart() {
+        currentTick++;
+        timeSpent = 0;
+    }
+
+    static void tick(TileMultipartContainer container, PartInfo info, ITickableTileEntity ticker) {
+        int interval = info.getTile().getPartTickInterval();
+        if (interval > 1 && timeSpent >= MCMPConfig.partTickTimeBudget() && currentTick - info.getLastTick() < interval) {
+            if (!info.isTickDeferred()) {
+                info.setTickDeferred(true);
+                deferred.add(info);
+            }
+            return;
+        }
+        run(container, info, ticker);
+    }
+
+    private static void run(TileMultipartContainer container, PartInfo info, ITickableTileEntity ticker) {
+        info.setLastTick(currentTick);
+        long start = System.nanoTime();
+        if (PartTickProfiler.isActive()) {
+            PartTickProfiler.tick(container, info, ticker);
+        } else {
+            ticker.tick();
+        }
+        timeSpent += System.nanoTime() - start;
+    }
+
+    public static void onServerTickEnd() {
+        if (deferred.isEmpty()) {
+            return;
+        }
+        // Drop the parts that got ticked by their container or are gone first, so they're neither kept around while
+        // over budget nor counted against it
+        deferred.removeIf(info -> {
+            if (info.getLastTick() == currentTick || !isInWorld(info.getContainer()) || info.getTile() == null) {
+                info.setTickDeferred(false);
+                return true;
+            }
+            return false;
+        });
+        long budget = MCMPConfig.partTickTimeBudget();
+        while (!deferred.isEmpty() && timeSpent < budget) {
+            PartInfo info = deferred.poll();
+            info.setTickDeferred(false);
+            // Checked again, the parts that ticked before this one may have removed it or changed its container
+            TileMultipartContainer container = info.getContainer();
+            if (info.getLastTick() == currentTick || !isInWorld(container) || info.getTile() == null) {
+                continue;
+            }
+            ITickableTileEntity ticker = info.getTile().getTickable();
+            if (ticker != null && ((TileMultipartContainer.Ticking) container).isTickingPart(info, ticker)) {
+                run(container, info, ticker);
+            }
+        }
+    }
+
+    private static boolean isInWorld(TileMultipartContainer container) {
+        return container instanceof TileMultipartContainer.Ticking && !container.isRemoved() && container.getWorld() != null
+                && container.getWorld().isBlockLoaded(container.getPos());
+    }
+
+    public static void onWorldUnload(IWorld world) {
+        deferred.removeIf(info -> {
+            TileMultipartContainer container = info.getContainer();
+            if (container == null || container.getWorld() == world) {
+                info.setTickDeferred(false);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    public static void onServerStopped() {
+        deferred.forEach(info -> info.setTickDeferred(false));
+        deferred.clear();
+        timeSpent = 0;
+    }
+
+}
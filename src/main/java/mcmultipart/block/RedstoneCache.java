@@ -0,0 +1,132 @@
+package mcmultipart.block;
+
+import mcmultipart.api.slot.EnumEdgeSlot;
+import mcmultipart.api.slot.SlotUtil;
+import mcmultipart.multipart.PartInfo;
+import net.minecraft.util.Direction;
+
+import java.util.Arrays;
+
+// Redstone outputs of a container, keyed by the face the parts are viewed from and the side passed to them.
+// Values are -1 until computed, booleans are stored as 0/1. Nothing is cached while a part's output depends on its tile.
+public final class RedstoneCache {
+
+    private static final int SIDES = Direction.values().length;
+
+    private final byte[] weakPower = new byte[SIDES * SIDES], strongPower = new byte[SIDES * SIDES],
+            connectsRedstone = new byte[SIDES * SIDES];
+    private byte[] edgeWeakPower, edgeStrongPower, edgeConnectsRedstone; // Only allocated if someone asks for edges
+    private byte cacheable = -1; // Whether no part's output depends on its tile data, -1 until checked
+
+    RedstoneCache() {
+        clear();
+    }
+
+    void clear() {
+        cacheable = -1;
+        Arrays.fill(weakPower, (byte) -1);
+        Arrays.fill(strongPower, (byte) -1);
+        Arrays.fill(connectsRedstone, (byte) -1);
+        if (edgeWeakPower != null) {
+            Arrays.fill(edgeWeakPower, (byte) -1);
+            Arrays.fill(edgeStrongPower, (byte) -1);
+            Arrays.fill(edgeConnectsRedstone, (byte) -1);
+        }
+    }
+
+    public boolean canConnectRedstone(TileMultipartContainer container, Direction face, Direction side) {
+        int key = face.getIndex() * SIDES + side.getIndex();
+        byte value = isCacheable(container) ? connectsRedstone[key] : -1;
+        if (value < 0) {
+            boolean connects = SlotUtil.viewContainerAny(container, i -> i.getPart().canConnectRedstone(i, side), face);
+            connectsRedstone[key] = value = (byte) (connects ? 1 : 0);
+        }
+        return value == 1;
+    }
+
+    public int getWeakPower(TileMultipartContainer container, Direction face, Direction side) {
+        int key = face.getIndex() * SIDES + side.getIndex();
+        int value = isCacheable(container) ? weakPower[key] : -1;
+        if (value < 0) {
+            value = SlotUtil.viewContainerInt(container, i -> i.getPart().getWeakPower(i, side), Math::max, 0, face);
+            store(weakPower, key, value);
+        }
+        return value;
+    }
+
+    public int getStrongPower(TileMultipartContainer container, Direction face, Direction side) {
+        int key = face.getIndex() * SIDES + side.getIndex();
+        int value = isCacheable(container) ? strongPower[key] : -1;
+        if (value < 0) {
+            value = SlotUtil.viewContainerInt(container, i -> i.getPart().getStrongPower(i, side), Math::max, 0, face);
+            store(strongPower, key, value);
+        }
+        return value;
+    }
+
+    public boolean canConnectRedstone(TileMultipartContainer container, EnumEdgeSlot edge, Direction side) {
+        allocateEdges();
+        int key = edge.ordinal() * SIDES + side.getIndex();
+        byte value = isCacheable(container) ? edgeConnectsRedstone[key] : -1;
+        if (value < 0) {
+            boolean connects = SlotUtil.viewContainerAny(container, i -> i.getPart().canConnectRedstone(i, side), edge, side);
+            edgeConnectsRedstone[key] = value = (byte) (connects ? 1 : 0);
+        }
+        return value == 1;
+    }
+
+    public int getWeakPower(TileMultipartContainer container, EnumEdgeSlot edge, Direction side) {
+        allocateEdges();
+        int key = edge.ordinal() * SIDES + side.getIndex();
+        int value = isCacheable(container) ? edgeWeakPower[key] : -1;
+        if (value < 0) {
+            value = SlotUtil.viewContainerInt(container, i -> i.getPart().getWeakPower(i, side), Math::max, 0, edge, side);
+            store(edgeWeakPower, key, value);
+        }
+        return value;
+    }
+
+    public int getStrongPower(TileMultipartContainer container, EnumEdgeSlot edge, Direction side) {
+        allocateEdges();
+        int key = edge.ordinal() * SIDES + side.getIndex();
+        int value = isCacheable(container) ? edgeStrongPower[key] : -1;
+        if (value < 0) {
+            value = SlotUtil.viewContainerInt(container, i -> i.getPart().getStrongPower(i, side), Math::max, 0, edge, side);
+            store(edgeStrongPower, key, value);
+        }
+        return value;
+    }
+
+    // Parts whose output depends on their tile data are queried every time, as they may not tell the container when
+    // it changes (see IMultipart#hasTileDependentRedstone)
+    private boolean isCacheable(TileMultipartContainer container) {
+        if (cacheable < 0) {
+            boolean dependent = false;
+            for (int id = 0; id < container.getSlotCapacity() && !dependent; id++) {
+                PartInfo info = container.getPartInfo(id);
+                dependent = info != null && info.getPart().hasTileDependentRedstone(info);
+            }
+            cacheable = (byte) (dependent ? 0 : 1);
+        }
+        return cacheable == 1;
+    }
+
+    private void allocateEdges() {
+        if (edgeWeakPower == null) {
+            int size = EnumEdgeSlot.VALUES.length * SIDES;
+            edgeWeakPower = new byte[size];
+            edgeStrongPower = new byte[size];
+            edgeConnectsRedstone = new byte[size];
+            Arrays.fill(edgeWeakPower, (byte) -1);
+            Arrays.fill(edgeStrongPower, (byte) -1);
+            Arrays.fill(edgeConnectsRedstone, (byte) -1);
+        }
+    }
+
+    private static void store(byte[] cache, int key, int value) {
+        if (value >= 0 && value <= Byte.MAX_VALUE) { // Anything else is out of spec, don't cache it
+            cache[key] = (byte) value;
+        }
+    }
+
+}
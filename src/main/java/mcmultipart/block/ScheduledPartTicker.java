@@ -0,0 +1,64 @@
+package mcmultipart.block;
+
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// Runs the scheduled part ticks of containers at the end of the world tick the earliest one is due in. Vanilla keeps a
+// single block tick per position that can't be moved to an earlier time, so containers don't use it for these.
+public final class ScheduledPartTicker {
+
+    private static final Map<IWorld, PriorityQueue<Pending>> queues = new IdentityHashMap<>();
+
+    private ScheduledPartTicker() {
+    }
+
+    static void schedule(TileMultipartContainer container, long time) {
+        queues.computeIfAbsent(container.getWorld(), w -> new PriorityQueue<>()).add(new Pending(container, time));
+    }
+
+    public static void tick(World world) {
+        PriorityQueue<Pending> queue = queues.get(world);
+        if (queue == null) {
+            return;
+        }
+        long now = world.getGameTime();
+        while (!queue.isEmpty() && queue.peek().time <= now) {
+            TileMultipartContainer container = queue.poll().container;
+            // Entries that were superseded by an earlier one, or whose container is gone, are just dropped
+            if (container.isContainerTickDue(now) && !container.isRemoved() && world.isBlockLoaded(container.getPos())
+                    && world.getTileEntity(container.getPos()) == container) {
+                container.tickScheduledParts(world.rand);
+            }
+        }
+    }
+
+    public static void onWorldUnload(IWorld world) {
+        queues.remove(world);
+    }
+
+    public static void onServerStopped() {
+        queues.clear();
+    }
+
+    private static final class Pending implements Comparable<Pending> {
+
+        private final TileMultipartContainer container;
+        private final long time;
+
+        private Pending(TileMultipartContainer container, long time) {
+            this.container = container;
+            this.time = time;
+        }
+
+        @Override
+        public int compareTo(Pending other) {
+            return Long.compare(time, other.time);
+        }
+
+    }
+
+}
@@ -0,0 +1,110 @@
+package mcmultipart.block;
+
+import java.util.Arrays;
+
+// Min-heap of scheduled part ticks, each packed into a long as (game time << SLOT_BITS) | slot ID so that they
+// order by due time
+final class TickQueue {
+
+    static final int SLOT_BITS = 16;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+
+    private long[] heap = new long[4];
+    private int size = 0;
+
+    static long pack(long gameTime, int slotID) {
+        return gameTime << SLOT_BITS | slotID & SLOT_MASK;
+    }
+
+    static long getTime(long entry) {
+        return entry >>> SLOT_BITS;
+    }
+
+    static int getSlotID(long entry) {
+        return (int) (entry & SLOT_MASK);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    // The earliest entry, only valid if the queue isn't empty
+    long peek() {
+        return heap[0];
+    }
+
+    void add(long entry) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= entry) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = entry;
+    }
+
+    long poll() {
+        long first = heap[0];
+        long last = heap[--size];
+        if (size > 0) {
+            siftDown(0, last);
+        }
+        return first;
+    }
+
+    private void siftDown(int i, long entry) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (entry <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = entry;
+    }
+
+    // Drops the ticks of a part that's no longer there, so they don't go to whatever ends up in its slot
+    void removeSlot(int slotID) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (getSlotID(heap[i]) != slotID) {
+                heap[count++] = heap[i];
+            }
+        }
+        if (count != size) {
+            size = count;
+            for (int i = (size >>> 1) - 1; i >= 0; i--) {
+                siftDown(i, heap[i]);
+            }
+        }
+    }
+
+    boolean containsSlot(int slotID) {
+        for (int i = 0; i < size; i++) {
+            if (getSlotID(heap[i]) == slotID) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(heap, size);
+    }
+
+}
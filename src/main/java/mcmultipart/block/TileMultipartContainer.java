@@ -2,6 +2,7 @@ package mcmultipart.block;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Sets;
+import mcmultipart.MCMPConfig;
 import mcmultipart.MCMultiPart;
 import mcmultipart.api.container.IMultipartContainer;
 import mcmultipart.api.container.IPartInfo;
@@ -10,13 +11,13 @@ import mcmultipart.api.multipart.IMultipartTile;
 import mcmultipart.api.multipart.MultipartOcclusionHelper;
 import mcmultipart.api.ref.MCMPCapabilities;
 import mcmultipart.api.slot.IPartSlot;
-import mcmultipart.api.slot.SlotUtil;
-import mcmultipart.capability.CapabilityJoiner;
 import mcmultipart.client.TESRMultipartContainer;
 import mcmultipart.multipart.MultipartRegistry;
 import mcmultipart.multipart.PartInfo;
 import mcmultipart.network.MultipartAction;
 import mcmultipart.network.MultipartNetworkHandler;
+import mcmultipart.profiler.PartTickProfiler;
+import mcmultipart.slot.SlotRegistry;
 import mcmultipart.util.WorldExt;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.renderer.tileentity.TileEntityRendererDispatcher;
@@ -32,6 +33,9 @@ import net.minecraft.util.ObjectIntIdentityMap;
 import net.minecraft.util.Rotation;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.shapes.ISelectionContext;
+import net.minecraft.util.math.shapes.VoxelShape;
+import net.minecraft.util.math.shapes.VoxelShapes;
 import net.minecraft.world.World;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
@@ -43,14 +47,33 @@ import net.minecraftforge.fml.loading.FMLEnvironment;
 import net.minecraftforge.registries.GameData;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 public class TileMultipartContainer extends TileEntity implements IMultipartContainer {
 
-    private final Map<IPartSlot, PartInfo> parts = new ConcurrentHashMap<>(), partView = Collections.unmodifiableMap(parts);
+    private static final PartInfo[] NO_PARTS = new PartInfo[0];
+
+    // Parts are stored by slot ID, so lookups and iteration don't need to go through a map
+    private PartInfo[] parts = NO_PARTS;
+    private int partCount = 0;
+    private int tickingPartCount = 0; // Parts with a tickable tile, sleeping or not
+    private final Map<IPartSlot, PartInfo> partView = new PartView();
+    // Bitmasks (by slot ID) of the occupied slots and the ghost slots reserved by the parts, for O(1) conflict checks
+    private long occupiedSlots = 0L, ghostSlots = 0L;
+    private boolean slotMaskOverflow = false;
+    // Merged part shapes, indexed by [collision ? 2 : 0] + [dummy context ? 0 : 1]
+    private final VoxelShape[] shapeCache = new VoxelShape[4];
+    private byte shapeContextDependent = -1;
+    private ContainerProperties properties;
+    private boolean computingProperties = false;
+    private RedstoneCache redstone; // Allocated on the first redstone query
+    private CapabilityCache capabilities;
+    private TickQueue scheduledTicks; // Allocated on the first scheduled tick
+    private long containerTickTime = Long.MAX_VALUE; // Time the scheduled part ticks were last requested to run at
+    private LazyOptional<IMultipartContainer> containerOptional;
     private boolean isInWorld = true;
     private Map<IPartSlot, CompoundNBT> missingParts;
     private World loadingWorld;
@@ -93,7 +116,9 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
     @Nonnull
     @Override
     public IModelData getModelData() {
-        return new ModelDataMap.Builder().withInitial(BlockMultipartContainer.PROPERTY_INFO, parts.values().stream().map(part -> part.getInfo(world, pos)).collect(Collectors.toList())).build();
+        List<PartInfo.ClientInfo> info = new ArrayList<>(partCount);
+        forEachPart(part -> info.add(part.getInfo(world, pos)));
+        return new ModelDataMap.Builder().withInitial(BlockMultipartContainer.PROPERTY_INFO, info).build();
     }
 
     @Override
@@ -102,7 +127,8 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
         super.setWorld(world);
         isInWorld = true;
         if (world != prevWorld) {
-            parts.values().forEach(PartInfo::refreshWorld);
+            forEachPart(PartInfo::refreshWorld);
+            invalidateCaches();
         }
     }
 
@@ -131,7 +157,273 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
         if (slot == null) {
             return Optional.empty();
         }
-        return Optional.ofNullable(parts.get(slot));
+        return Optional.ofNullable(getPartInfo(slot));
+    }
+
+    public PartInfo getPartInfo(int slotID) {
+        PartInfo[] parts = this.parts;
+        return slotID >= 0 && slotID < parts.length ? parts[slotID] : null;
+    }
+
+    public PartInfo getPartInfo(IPartSlot slot) {
+        PartInfo info = getPartInfo(SlotRegistry.INSTANCE.getSlotID(slot));
+        return info != null && info.getSlot() == slot ? info : null;
+    }
+
+    public int getPartCount() {
+        return partCount;
+    }
+
+    public int getSlotCapacity() {
+        return parts.length;
+    }
+
+    public int getTickingPartCount() {
+        return tickingPartCount;
+    }
+
+    public long getOccupiedSlotMask() {
+        return occupiedSlots;
+    }
+
+    public VoxelShape getShape(ISelectionContext context) {
+        return getMergedShape(context, false);
+    }
+
+    public VoxelShape getCollisionShape(ISelectionContext context) {
+        return getMergedShape(context, true);
+    }
+
+    private VoxelShape getMergedShape(ISelectionContext context, boolean collision) {
+        boolean dummy = context == ISelectionContext.dummy();
+        if (!dummy && isShapeContextDependent()) {
+            return mergeShapes(context, collision);
+        }
+        VoxelShape[] cache = this.shapeCache;
+        int index = (collision ? 2 : 0) + (dummy ? 0 : 1);
+        VoxelShape shape = cache[index];
+        if (shape == null) {
+            cache[index] = shape = mergeShapes(context, collision);
+        }
+        return shape;
+    }
+
+    private VoxelShape mergeShapes(ISelectionContext context, boolean collision) {
+        VoxelShape shape = VoxelShapes.empty();
+        for (PartInfo part : parts) {
+            if (part != null) {
+                shape = VoxelShapes.or(shape, collision ? part.getPart().getCollisionShape(part, context) : part.getPart().getShape(part, context));
+            }
+        }
+        return shape;
+    }
+
+    private boolean isShapeContextDependent() {
+        if (shapeContextDependent < 0) {
+            shapeContextDependent = (byte) (anyPartMatch(i -> i.getPart().isShapeContextDependent(i)) ? 1 : 0);
+        }
+        return shapeContextDependent == 1;
+    }
+
+    public void invalidateShapes() {
+        Arrays.fill(shapeCache, null);
+        shapeContextDependent = -1;
+    }
+
+    // Aggregated block properties, or null if some part computes them from the world
+    public ContainerProperties getProperties() {
+        ContainerProperties properties = this.properties;
+        if (properties == null) {
+            if (computingProperties) { // A part is querying the container while its properties are computed
+                return null;
+            }
+            computingProperties = true;
+            try {
+                this.properties = properties = ContainerProperties.compute(this);
+            } finally {
+                computingProperties = false;
+            }
+        }
+        return properties != ContainerProperties.DYNAMIC ? properties : null;
+    }
+
+    public void invalidateProperties() {
+        properties = null;
+    }
+
+    public RedstoneCache getRedstone() {
+        RedstoneCache redstone = this.redstone;
+        if (redstone == null) {
+            this.redstone = redstone = new RedstoneCache();
+        }
+        return redstone;
+    }
+
+    public void invalidateRedstone() {
+        if (redstone != null) {
+            redstone.clear();
+        }
+    }
+
+    @Override
+    public void markDirty() {
+        // Parts saving changed tile data through the container may have changed their output with it
+        invalidateRedstone();
+        super.markDirty();
+    }
+
+    public void invalidateCaches() {
+        invalidateShapes();
+        invalidateProperties();
+        invalidateRedstone();
+        invalidateCapabilities();
+    }
+
+    @Override
+    public void sleepPart(IPartInfo part) {
+        setSleeping(part, true);
+    }
+
+    @Override
+    public void wakePart(IPartInfo part) {
+        setSleeping(part, false);
+    }
+
+    private void setSleeping(IPartInfo part, boolean sleeping) {
+        if (!(part instanceof PartInfo)) {
+            return;
+        }
+        PartInfo info = (PartInfo) part;
+        if (getPartInfo(info.getSlotID()) == info && info.isSleeping() != sleeping) {
+            info.setSleeping(sleeping);
+            onTickingPartsChanged();
+        }
+    }
+
+    public void wakeParts() {
+        boolean woken = false;
+        for (PartInfo info : parts) {
+            if (info != null && info.isSleeping()) {
+                info.setSleeping(false);
+                woken = true;
+            }
+        }
+        if (woken) {
+            onTickingPartsChanged();
+        }
+    }
+
+    @Override
+    public void scheduleTick(IPartInfo part, int delay) {
+        if (!(part instanceof PartInfo) || getPartInfo(((PartInfo) part).getSlotID()) != part || getWorld().isRemote) {
+            return;
+        }
+        if (scheduledTicks == null) {
+            scheduledTicks = new TickQueue();
+        }
+        scheduledTicks.add(TickQueue.pack(getWorld().getGameTime() + Math.max(delay, 1), ((PartInfo) part).getSlotID()));
+        scheduleContainerTick();
+    }
+
+    public boolean hasScheduledTick(PartInfo part) {
+        return scheduledTicks != null && getPartInfo(part.getSlotID()) == part && scheduledTicks.containsSlot(part.getSlotID());
+    }
+
+    // Requests a run of the scheduled ticks for the earliest one, unless one is already requested by then. A request that
+    // is in the past was lost (the world or chunk unloaded), so it's made again.
+    private void scheduleContainerTick() {
+        if (scheduledTicks == null || scheduledTicks.isEmpty() || getWorld() == null || getWorld().isRemote) {
+            return;
+        }
+        long due = TickQueue.getTime(scheduledTicks.peek());
+        if (due < containerTickTime || containerTickTime < getWorld().getGameTime()) {
+            containerTickTime = due;
+            ScheduledPartTicker.schedule(this, due);
+        }
+    }
+
+    boolean isContainerTickDue(long now) {
+        return containerTickTime <= now;
+    }
+
+    // Called from ScheduledPartTicker, and from the block's scheduled tick for ticks requested by older versions
+    public void tickScheduledParts(Random random) {
+        containerTickTime = Long.MAX_VALUE;
+        dispatchScheduledTicks(random);
+        scheduleContainerTick();
+    }
+
+    protected void dispatchScheduledTicks(Random random) {
+        TickQueue queue = scheduledTicks;
+        if (queue == null) {
+            return;
+        }
+        long now = getWorld().getGameTime();
+        while (!queue.isEmpty() && TickQueue.getTime(queue.peek()) <= now) {
+            PartInfo info = getPartInfo(TickQueue.getSlotID(queue.poll()));
+            if (info != null) {
+                info.getPart().tick(info, random);
+            }
+        }
+    }
+
+    protected boolean hasDueTicks() {
+        return scheduledTicks != null && !scheduledTicks.isEmpty() && TickQueue.getTime(scheduledTicks.peek()) <= getWorld().getGameTime();
+    }
+
+    // Called when parts may have started or stopped ticking
+    protected void onTickingPartsChanged() {
+    }
+
+    protected void onContentsChanged() {
+        updateSlotMasks();
+        invalidateCaches();
+        wakeParts();
+        onTickingPartsChanged();
+    }
+
+    @Override
+    public void notifyShapeChange(IPartInfo part) {
+        if (part instanceof PartInfo) {
+            ((PartInfo) part).invalidateOcclusionBoxes();
+        }
+        invalidateShapes();
+    }
+
+    @Override
+    public void notifyRedstoneChange(IPartInfo part) {
+        invalidateRedstone();
+    }
+
+    @Override
+    public void notifyChange(IPartInfo part) {
+        if (part instanceof PartInfo) {
+            ((PartInfo) part).invalidateOcclusionBoxes(); // The shape may depend on the tile data
+        }
+        invalidateCaches();
+        wakeParts();
+        IMultipartContainer.super.notifyChange(part);
+    }
+
+    public void onPartStateChanged(PartInfo part) {
+        if (getPartInfo(part.getSlotID()) != part) { // Not (or no longer) part of this container
+            return;
+        }
+        onContentsChanged();
+    }
+
+    public void onPartTileChanged(PartInfo part, IMultipartTile prevTile) {
+        if (getPartInfo(part.getSlotID()) != part) {
+            return;
+        }
+        if (isTickable(prevTile) != isTickable(part.getTile())) {
+            tickingPartCount += isTickable(prevTile) ? -1 : 1;
+        }
+        part.invalidateOcclusionBoxes();
+        invalidateProperties();
+        invalidateRedstone();
+        invalidateCapabilities();
+        onTickingPartsChanged();
     }
 
     @Override
@@ -143,7 +435,7 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
         World otherWorld = null;
         try {
             if (!isInWorld) { // Simulate being a multipart if it's not one
-                otherInfo = getParts().values().iterator().next();
+                otherInfo = getFirstPart();
                 otherWorld = otherInfo.getTile() != null ? otherInfo.getTile().getPartWorld() : null;
                 otherInfo.refreshWorld();
             }
@@ -153,15 +445,26 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
             PartInfo info = new PartInfo(this, slot, part, state, tile);
 
             // If any of the slots required by this multipart aren't empty, fail.
-            Set<IPartSlot> partSlots = Sets.newIdentityHashSet();
-            partSlots.addAll(part.getGhostSlots(info));
-            partSlots.add(slot);
-            if (partSlots.stream().anyMatch(parts::containsKey)
-                    || parts.values().stream().map(i -> i.getPart().getGhostSlots(i)).flatMap(Set::stream).anyMatch(partSlots::contains)) {
-                partSlots.clear();
+            Set<IPartSlot> ghosts = part.getGhostSlots(info);
+            long candidateSlots = SlotRegistry.INSTANCE.getSlotMask(slot);
+            boolean overflow = slotMaskOverflow || candidateSlots == 0L;
+            for (IPartSlot ghost : ghosts) {
+                long mask = SlotRegistry.INSTANCE.getSlotMask(ghost);
+                candidateSlots |= mask;
+                overflow |= mask == 0L;
+            }
+            if ((candidateSlots & (occupiedSlots | ghostSlots)) != 0L) {
                 return false;
             }
-            partSlots.clear();
+            if (overflow) { // Some slot IDs don't fit in the masks, so fall back to comparing the slots themselves
+                Set<IPartSlot> partSlots = Sets.newIdentityHashSet();
+                partSlots.addAll(ghosts);
+                partSlots.add(slot);
+                if (partSlots.stream().anyMatch(s -> getPartInfo(s) != null)
+                        || partView.values().stream().map(i -> i.getPart().getGhostSlots(i)).flatMap(Set::stream).anyMatch(partSlots::contains)) {
+                    return false;
+                }
+            }
 
             // If the occlusion boxes of this part intersect with any other parts', fail.
             if (MultipartOcclusionHelper.testContainerPartIntersection(this, info)) {
@@ -200,7 +503,7 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
 
         if (!getWorld().isRemote) {
             part.onAdded(info);
-            parts.values().forEach(i -> {
+            forEachPart(i -> {
                 if (i != info) {
                     i.getPart().onPartAdded(i, info);
                 }
@@ -212,7 +515,7 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
 
     @Override
     public void removePart(IPartSlot slot) {
-        PartInfo info = parts.get(slot);
+        PartInfo info = getPartInfo(slot);
         removePartDo(slot, info);
         updateWorldState();
     }
@@ -227,17 +530,23 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
         if (!getWorld().isRemote) {
 //            info.getPart().breakPart(info);
             info.getPart().onRemoved(info);
-            parts.values().forEach(i -> i.getPart().onPartRemoved(i, info));
+            forEachPart(i -> i.getPart().onPartRemoved(i, info));
 
             MultipartNetworkHandler.queuePartChange(getWorld(), new MultipartAction.Remove(getPos(), slot));
         }
     }
 
     protected void updateWorldState() {
+        updateWorldState(MCMPConfig.tickingDowngradeDelay() <= 0);
+    }
+
+    // Switching to a non-ticking container can be deferred to the container's own tick, so parts that come and go
+    // quickly don't replace the tile entity every time
+    protected void updateWorldState(boolean allowDowngrade) {
         BlockState prevSt = getWorld().getBlockState(getPos());
 
-        if (parts.size() == 1) {
-            PartInfo part = parts.values().iterator().next();
+        if (partCount == 1) {
+            PartInfo part = getFirstPart();
 
             // After breaking a block, Minecraft automatically sends an update packet to update the block the player
             // destroyed. This causes the TE to get lost, since setting a new block state removes the old TE.
@@ -251,23 +560,23 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
                 te.validate();
                 getWorld().setTileEntity(getPos(), te);
             }
+            carryOverScheduledTicks(part);
 
             this.isInWorld = false;
         } else {
-            int currentTicking = countTickingParts();
             boolean isTETicking = this instanceof ITickableTileEntity;
             TileMultipartContainer container = this;
             boolean needsBlockUpdate = false;
 
-            if (currentTicking == 0 && isTETicking) {
+            if (tickingPartCount == 0 && isTETicking && allowDowngrade) {
                 needsBlockUpdate = true;
                 container = new TileMultipartContainer(getWorld(), getPos());
-            } else if (currentTicking > 0 && !isTETicking) {
+            } else if (tickingPartCount > 0 && !isTETicking) {
                 needsBlockUpdate = true;
                 container = new TileMultipartContainer.Ticking(getWorld(), getPos());
             } else if (prevSt.getBlock() != MCMultiPart.multipart) {
                 needsBlockUpdate = true;
-                parts.values().forEach(it -> {
+                forEachPart(it -> {
                     it.setContainer(this);
                     it.refreshWorld();
                 });
@@ -291,28 +600,106 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
         requestModelDataUpdate();
     }
 
-    private int countTickingParts() {
-        return (int) parts.values().stream().map(IPartInfo::getTile).filter(t -> t != null && t.isTickable()).count();
+    // The remaining part becomes a plain block again, its pending ticks become block ticks. Vanilla keeps one per
+    // position and block, so the earliest one is used.
+    private void carryOverScheduledTicks(PartInfo part) {
+        if (scheduledTicks == null || getWorld().isRemote) {
+            return;
+        }
+        long earliest = Long.MAX_VALUE;
+        for (long tick : scheduledTicks.toArray()) {
+            if (TickQueue.getSlotID(tick) == part.getSlotID()) {
+                earliest = Math.min(earliest, TickQueue.getTime(tick));
+            }
+        }
+        if (earliest != Long.MAX_VALUE) {
+            int delay = (int) Math.max(earliest - getWorld().getGameTime(), 1);
+            getWorld().getPendingBlockTicks().scheduleTick(getPos(), part.getState().getBlock(), delay);
+        }
+        scheduledTicks = null;
+        containerTickTime = Long.MAX_VALUE;
+    }
+
+    private static boolean isTickable(PartInfo info) {
+        return info != null && info.getTile() != null && info.getTile().isTickable();
+    }
+
+    private static boolean isTickable(IMultipartTile tile) {
+        return tile != null && tile.isTickable();
     }
 
     protected void add(IPartSlot slot, PartInfo partInfo) {
-        parts.put(slot, partInfo);
+        int id = SlotRegistry.INSTANCE.getSlotID(slot);
+        Preconditions.checkArgument(id >= 0, "The slot " + slot + " is not registered!");
+        if (id >= parts.length) {
+            parts = Arrays.copyOf(parts, id + 1);
+        }
+        if (parts[id] == null) {
+            partCount++;
+        } else if (isTickable(parts[id])) {
+            tickingPartCount--;
+        }
+        if (isTickable(partInfo)) {
+            tickingPartCount++;
+        }
+        parts[id] = partInfo;
         partInfo.setContainer(this);
+        onContentsChanged();
     }
 
     protected void remove(IPartSlot slot) {
-        parts.remove(slot);
+        int id = SlotRegistry.INSTANCE.getSlotID(slot);
+        if (id >= 0 && id < parts.length && parts[id] != null) {
+            if (isTickable(parts[id])) {
+                tickingPartCount--;
+            }
+            parts[id] = null;
+            partCount--;
+            if (scheduledTicks != null) {
+                scheduledTicks.removeSlot(id);
+            }
+            onContentsChanged();
+        }
     }
 
     protected void clear() {
-        parts.clear();
+        Arrays.fill(parts, null);
+        partCount = 0;
+        tickingPartCount = 0;
+        if (scheduledTicks != null) {
+            scheduledTicks.clear();
+        }
+        onContentsChanged();
+    }
+
+    protected void updateSlotMasks() {
+        long occupied = 0L, ghost = 0L;
+        boolean overflow = false;
+        for (PartInfo info : parts) {
+            if (info == null) {
+                continue;
+            }
+            long mask = SlotRegistry.INSTANCE.getSlotMask(info.getSlotID());
+            occupied |= mask;
+            overflow |= mask == 0L;
+            for (IPartSlot slot : info.getPart().getGhostSlots(info)) {
+                mask = SlotRegistry.INSTANCE.getSlotMask(slot);
+                ghost |= mask;
+                overflow |= mask == 0L;
+            }
+        }
+        this.occupiedSlots = occupied;
+        this.ghostSlots = ghost;
+        this.slotMaskOverflow = overflow;
     }
 
     protected void transferTo(TileMultipartContainer container) {
-        parts.forEach(container::add); // Doing it like this to add them to the ticking list if needed
+        forEachPart(i -> container.add(i.getSlot(), i)); // Doing it like this to add them to the ticking list if needed
         if (missingParts != null) {
             container.missingParts = missingParts;
         }
+        container.scheduledTicks = scheduledTicks;
+        container.scheduleContainerTick(); // The requests made by this container are dropped once it's replaced
     }
 
     @Override
@@ -324,6 +711,9 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
     public CompoundNBT write(CompoundNBT tag) {
         tag = super.write(tag);
         tag = writeParts(tag, false);
+        if (scheduledTicks != null && !scheduledTicks.isEmpty()) {
+            tag.putLongArray("ticks", scheduledTicks.toArray());
+        }
         return tag;
     }
 
@@ -331,6 +721,12 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
     public void read(CompoundNBT tag) {
         super.read(tag);
         readParts(tag, false, loadingWorld);
+        if (tag.contains("ticks")) {
+            scheduledTicks = new TickQueue();
+            for (long tick : tag.getLongArray("ticks")) {
+                scheduledTicks.add(tick);
+            }
+        }
     }
 
     @Override
@@ -358,7 +754,7 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
 
     private CompoundNBT writeParts(CompoundNBT tag, boolean update) {
         CompoundNBT parts = new CompoundNBT();
-        this.parts.forEach((s, i) -> {
+        forEachPart(i -> {
             CompoundNBT t = new CompoundNBT();
             t.putInt("state", MCMultiPart.stateMap.get(i.getState()));
             IMultipartTile tile = i.getTile();
@@ -369,7 +765,7 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
                     t.put("tile", tile.writePart(new CompoundNBT()));
                 }
             }
-            parts.put(Integer.toString(MCMultiPart.slotRegistry.getID(s)), t);
+            parts.put(Integer.toString(i.getSlotID()), t);
         });
         if (this.missingParts != null) {
             this.missingParts.forEach((s, t) -> parts.put(Integer.toString(MCMultiPart.slotRegistry.getID(s)), t));
@@ -388,7 +784,7 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
             IPartSlot slot = MCMultiPart.slotRegistry.getValue(Integer.parseInt(sID));
             if (slot != null) {
                 visitedSlots.add(slot);
-                PartInfo prevInfo = this.parts.get(slot);
+                PartInfo prevInfo = getPartInfo(slot);
 
                 CompoundNBT t = parts.getCompound(sID);
                 BlockState state = stateMap.getByValue(t.getInt("state"));
@@ -437,7 +833,7 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
                 }
             }
         }
-        Set<IPartSlot> removed = new HashSet<>(this.parts.keySet());
+        Set<IPartSlot> removed = new HashSet<>(partView.keySet());
         removed.removeAll(visitedSlots);
         removed.forEach(this::remove);
         this.world = prevWorld;
@@ -446,13 +842,15 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
     @Override
     public void onLoad() {
         forEachTile(te -> te.setPartPos(getPartPos()));
-        parts.values().forEach(PartInfo::refreshWorld);
+        forEachPart(PartInfo::refreshWorld);
         forEachTile(IMultipartTile::onPartLoad);
+        scheduleContainerTick();
     }
 
     @Override
     public void onChunkUnloaded() {
         super.onChunkUnloaded();
+        invalidateContainerCapabilities();
         forEachTile(IMultipartTile::onPartChunkUnloaded);
     }
 
@@ -471,11 +869,20 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
     @Override
     public void remove() {
         super.remove();
+        invalidateContainerCapabilities();
         if (!isInWorld) {
             forEachTile(IMultipartTile::removePart);
         }
     }
 
+    private void invalidateContainerCapabilities() {
+        invalidateCapabilities();
+        if (containerOptional != null) {
+            containerOptional.invalidate();
+            containerOptional = null;
+        }
+    }
+
     @Override
     public void validate() {
         super.validate();
@@ -490,14 +897,24 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
 
     @Override
     public double getMaxRenderDistanceSquared() {
-        return parts.values().stream().map(IPartInfo::getTile).filter(Objects::nonNull).mapToDouble(IMultipartTile::getMaxPartRenderDistanceSquared)
-                .max().orElse(super.getMaxRenderDistanceSquared());
+        double max = Double.NEGATIVE_INFINITY;
+        for (PartInfo info : parts) {
+            if (info != null && info.getTile() != null) {
+                max = Math.max(max, info.getTile().getMaxPartRenderDistanceSquared());
+            }
+        }
+        return max != Double.NEGATIVE_INFINITY ? max : super.getMaxRenderDistanceSquared();
     }
 
     @Override
     public AxisAlignedBB getRenderBoundingBox() {
-        return parts.values().stream().map(IPartInfo::getTile).filter(Objects::nonNull)//
-                .reduce(super.getRenderBoundingBox(), (a, b) -> a.union(b.getPartRenderBoundingBox()), (a, b) -> b);
+        AxisAlignedBB box = super.getRenderBoundingBox();
+        for (PartInfo info : parts) {
+            if (info != null && info.getTile() != null) {
+                box = box.union(info.getTile().getPartRenderBoundingBox());
+            }
+        }
+        return box;
     }
 
     @Override
@@ -512,7 +929,10 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
 
     @OnlyIn(Dist.CLIENT)
     private boolean hasFastRendererC() {
-        for (IPartInfo info : parts.values()) {
+        for (PartInfo info : parts) {
+            if (info == null) {
+                continue;
+            }
             TileEntity te = info.getTile() != null ? info.getTile().asTileEntity() : null;
             if (te != null && TileEntityRendererDispatcher.instance.getRenderer(te) != null && !te.hasFastRenderer()) {
                 return false;
@@ -534,42 +954,157 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
         TESRMultipartContainer.pass = pass;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public <T> LazyOptional<T> getCapability(Capability<T> capability, Direction facing) {
         if (capability == MCMPCapabilities.MULTIPART_CONTAINER) {
-            return LazyOptional.of(() -> this).cast();
-        }
-        T val = SlotUtil
-                .viewContainer(this,
-                        i -> {
-                            if (i.getTile() != null) {
-                                LazyOptional<T> t = i.getTile().getPartCapability(capability, facing);
-                                if (t.isPresent()) {
-                                    return t.orElseThrow(NullPointerException::new);
-                                }
-                            }
-                            return null;
-                        },
-                        l -> CapabilityJoiner.join(capability, l), null, true, facing);
-        if (val != null) {
-            return LazyOptional.of(() -> val);
+            if (containerOptional == null) {
+                containerOptional = LazyOptional.of(() -> this);
+            }
+            return containerOptional.cast();
+        }
+        LazyOptional<T> optional = getPartCapability(capability, facing);
+        if (optional.isPresent()) {
+            return optional;
         }
         return super.getCapability(capability, facing);
     }
 
+    // The capability as exposed by the parts, cached until they change
+    public <T> LazyOptional<T> getPartCapability(Capability<T> capability, @Nullable Direction facing) {
+        if (capabilities == null) {
+            capabilities = new CapabilityCache(this);
+        }
+        return capabilities.get(capability, facing);
+    }
+
+    public void invalidateCapabilities() {
+        if (capabilities != null) {
+            capabilities.invalidate();
+        }
+    }
+
+    public void forEachPart(Consumer<PartInfo> consumer) {
+        PartInfo[] parts = this.parts;
+        for (PartInfo info : parts) {
+            if (info != null) {
+                consumer.accept(info);
+            }
+        }
+    }
+
     protected void forEachTile(Consumer<IMultipartTile> consumer) {
-        for (PartInfo info : parts.values()) {
-            IMultipartTile tile = info.getTile();
-            if (tile != null) {
-                consumer.accept(tile);
+        PartInfo[] parts = this.parts;
+        for (PartInfo info : parts) {
+            if (info != null && info.getTile() != null) {
+                consumer.accept(info.getTile());
+            }
+        }
+    }
+
+    public boolean anyPartMatch(Predicate<PartInfo> predicate) {
+        PartInfo[] parts = this.parts;
+        for (PartInfo info : parts) {
+            if (info != null && predicate.test(info)) {
+                return true;
             }
         }
+        return false;
+    }
+
+    private PartInfo getFirstPart() {
+        for (PartInfo info : parts) {
+            if (info != null) {
+                return info;
+            }
+        }
+        return null;
+    }
+
+    // Read-only map view over the slot-indexed part array, kept for API compatibility
+    private final class PartView extends AbstractMap<IPartSlot, PartInfo> {
+
+        private final Set<Entry<IPartSlot, PartInfo>> entrySet = new AbstractSet<Entry<IPartSlot, PartInfo>>() {
+
+            @Override
+            public Iterator<Entry<IPartSlot, PartInfo>> iterator() {
+                PartInfo[] parts = TileMultipartContainer.this.parts;
+                return new Iterator<Entry<IPartSlot, PartInfo>>() {
+
+                    private int index = -1;
+                    private PartInfo next = advance();
+
+                    private PartInfo advance() {
+                        while (++index < parts.length) {
+                            PartInfo info = parts[index];
+                            if (info != null) {
+                                return info;
+                            }
+                        }
+                        return null;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next != null;
+                    }
+
+                    @Override
+                    public Entry<IPartSlot, PartInfo> next() {
+                        if (next == null) {
+                            throw new NoSuchElementException();
+                        }
+                        PartInfo info = next;
+                        next = advance();
+                        return new SimpleImmutableEntry<>(info.getSlot(), info);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return partCount;
+            }
+        };
+
+        @Override
+        public Set<Entry<IPartSlot, PartInfo>> entrySet() {
+            return entrySet;
+        }
+
+        @Override
+        public int size() {
+            return partCount;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return partCount == 0;
+        }
+
+        @Override
+        public PartInfo get(Object key) {
+            return key instanceof IPartSlot ? getPartInfo((IPartSlot) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
     }
 
     public static class Ticking extends TileMultipartContainer implements ITickableTileEntity {
 
-        private final Set<ITickableTileEntity> tickingParts = Collections.newSetFromMap(new WeakHashMap<>());
+        private static final ITickableTileEntity[] NO_TICKERS = new ITickableTileEntity[0];
+
+        // The awake ticking parts and their tickables, rebuilt before the next tick whenever they may have changed
+        private PartInfo[] tickingParts = NO_PARTS;
+        private ITickableTileEntity[] tickers = NO_TICKERS;
+        private int tickerCount = 0;
+        private PartInfo[] concurrentParts = NO_PARTS; // The ones among them with a concurrent tick
+        private int concurrentCount = 0;
+        private boolean tickersDirty = true;
+        private int idleTicks = 0; // Ticks without any tickable parts, counting towards a downgrade
 
         private Ticking(World world, BlockPos pos) {
             super(MCMultiPart.TICKING_TYPE, world, pos);
@@ -581,33 +1116,86 @@ public class TileMultipartContainer extends TileEntity implements IMultipartCont
 
         @Override
         public void tick() {
-            if (tickingParts.isEmpty()) {
-                updateWorldState();
+            if (tickersDirty) {
+                updateTickers();
+            }
+            if (!getWorld().isRemote && hasDueTicks()) { // Don't wait for the block tick if it was requested for later
+                dispatchScheduledTicks(getWorld().rand);
+            }
+            if (getTickingPartCount() == 0) {
+                if (++idleTicks >= MCMPConfig.tickingDowngradeDelay()) {
+                    updateWorldState(true);
+                }
+                return;
+            }
+            idleTicks = 0;
+            if (tickerCount == 0) { // Everything is asleep
+                return;
+            }
+            PartInfo[] parts = tickingParts;
+            ITickableTileEntity[] tickers = this.tickers;
+            int count = tickerCount;
+            boolean schedule = !getWorld().isRemote && PartTickScheduler.isEnabled();
+            boolean profile = !getWorld().isRemote && PartTickProfiler.isActive();
+            for (int i = 0; i < count; i++) {
+                // Parts ticked earlier may have removed or put to sleep the ones after them
+                if (tickersDirty && !isTickingPart(parts[i], tickers[i])) {
+                    continue;
+                }
+                if (schedule) {
+                    PartTickScheduler.tick(this, parts[i], tickers[i]);
+                } else if (profile) {
+                    PartTickProfiler.tick(this, parts[i], tickers[i]);
+                } else {
+                    tickers[i].tick();
+                }
+            }
+            if (concurrentCount > 0 && !getWorld().isRemote) {
+                ConcurrentPartTicker.enqueue(concurrentParts, concurrentCount);
             }
-            tickingParts.forEach(ITickableTileEntity::tick);
         }
 
-        @Override
-        protected void add(IPartSlot slot, PartInfo partInfo) {
-            super.add(slot, partInfo);
-            IMultipartTile te = partInfo.getTile();
-            if (te != null && te.isTickable()) {
-                tickingParts.add(te.getTickable());
+        private void updateTickers() {
+            tickersDirty = false;
+            int size = getSlotCapacity();
+            if (tickingParts.length < size) {
+                tickingParts = new PartInfo[size];
+                tickers = new ITickableTileEntity[size];
+                concurrentParts = new PartInfo[size];
             }
+            int count = 0, concurrent = 0;
+            for (int id = 0; id < size; id++) {
+                PartInfo info = getPartInfo(id);
+                if (info != null && !info.isSleeping() && info.getTile() != null && info.getTile().isTickable()) {
+                    tickingParts[count] = info;
+                    tickers[count] = info.getTile().getTickable();
+                    count++;
+                    if (info.getTile().hasConcurrentPartTick()) {
+                        concurrentParts[concurrent++] = info;
+                    }
+                }
+            }
+            if (count < tickerCount) { // Don't hold on to removed parts
+                Arrays.fill(tickingParts, count, tickerCount, null);
+                Arrays.fill(tickers, count, tickerCount, null);
+            }
+            if (concurrent < concurrentCount) {
+                Arrays.fill(concurrentParts, concurrent, concurrentCount, null);
+            }
+            tickerCount = count;
+            concurrentCount = concurrent;
         }
 
-        @Override
-        protected void remove(IPartSlot slot) {
-            getPartTile(slot).ifPresent(tickingParts::remove);
-            super.remove(slot);
+        public boolean isTickingPart(PartInfo info, ITickableTileEntity ticker) {
+            return getPartInfo(info.getSlotID()) == info && !info.isSleeping() && info.getTile() != null
+                    && info.getTile().getTickable() == ticker;
         }
 
         @Override
-        protected void clear() {
-            tickingParts.clear();
-            super.clear();
+        protected void onTickingPartsChanged() {
+            tickersDirty = true;
         }
 
     }
 
-}
\ No newline at end of file
+}
@@ -6,9 +6,11 @@ import mcmultipart.api.container.IPartInfo;
 import mcmultipart.api.multipart.IMultipart;
 import mcmultipart.api.multipart.IMultipartTile;
 import mcmultipart.api.multipart.MultipartHelper;
+import mcmultipart.api.multipart.MultipartOcclusionHelper.OcclusionBoxes;
 import mcmultipart.api.slot.IPartSlot;
 import mcmultipart.api.world.IWorldView;
 import mcmultipart.block.TileMultipartContainer;
+import mcmultipart.slot.SlotRegistry;
 import mcmultipart.util.MCMPBlockReaderWrapper;
 import mcmultipart.util.MCMPWorldReaderWrapper;
 import mcmultipart.util.MCMPWorldWrapper;
@@ -43,6 +45,7 @@ public final class PartInfo implements IPartInfo {
     }
 
     private final IPartSlot slot;
+    private final int slotID;
     private TileMultipartContainer container;
     private IMultipart part;
     private BlockState state;
@@ -51,11 +54,21 @@ public final class PartInfo implements IPartInfo {
     private IWorldView view;
     private MCMPWorldWrapper world;
 
-    private Set<Long> scheduledTicks;
+    private OcclusionBoxes occlusionBoxes;
+
+    private boolean sleeping;
+    private int throttledTicks; // Ticks to skip, set by the tick watchdog
+    private long lastTick; // Server tick this part was last ticked in by the tick scheduler
+    private boolean tickDeferred;
+    // Last update tag sent (server) or received (client) for delta syncing, and its sequence number
+    private CompoundNBT syncTag;
+    private int syncSequence;
+    private int resyncSequence = -1; // Sequence number a full resync was last requested for
 
     public PartInfo(TileMultipartContainer container, IPartSlot slot, IMultipart part, BlockState state, IMultipartTile tile) {
         this.container = container;
         this.slot = slot;
+        this.slotID = SlotRegistry.INSTANCE.getSlotID(slot);
         setState(state, false);
         setTile(tile);
     }
@@ -71,34 +84,61 @@ public final class PartInfo implements IPartInfo {
     }
 
     public static void handleAdditionPacket(World world, BlockPos pos, IPartSlot slot, BlockState state, CompoundNBT tag) {
-        MultipartHelper.getInfo(world, pos, slot).map(i -> i instanceof PartInfo ? (PartInfo) i : null).ifPresent(IPartInfo::remove);
-        TileMultipartContainer tile = (TileMultipartContainer) MultipartHelper.getOrConvertContainer(world, pos).orElse(null);
+        if (applyAddition(world, pos, null, slot, state, tag) != null) {
+            world.markForRerender(pos);
+        }
+    }
+
+    public static void handleUpdatePacket(World world, BlockPos pos, IPartSlot slot, BlockState state, SUpdateTileEntityPacket pkt) {
+        if (applyUpdate(world, pos, null, slot, state, pkt) != null) {
+            world.markForRerender(pos);
+        }
+    }
+
+    public static void handleRemovalPacket(World world, BlockPos pos, IPartSlot slot) {
+        PartInfo info = getPartInfo(world, pos, null, slot);
+        if (info != null) {
+            info.remove();
+            world.markForRerender(pos);
+        }
+    }
+
+    // The apply methods take the container at the position if the caller already has it (null otherwise), and return
+    // the one that's there afterwards (null if there is none), so several changes to a position can share the lookup.
+    // Rerendering is left to the caller.
+
+    public static TileMultipartContainer applyAddition(World world, BlockPos pos, TileMultipartContainer container, IPartSlot slot,
+            BlockState state, CompoundNBT tag) {
+        PartInfo prev = getPartInfo(world, pos, container, slot);
+        if (prev != null) {
+            prev.remove();
+            container = null; // Might not be in the world anymore
+        }
+        TileMultipartContainer tile = container != null ? container
+                : (TileMultipartContainer) MultipartHelper.getOrConvertContainer(world, pos).orElse(null);
         if (tile != null) {
             tile.addPart(slot, state);
-            tile = (TileMultipartContainer) MultipartHelper.getOrConvertContainer(world, pos).orElse(null);
-            PartInfo info = (PartInfo) tile.get(slot).orElse(null);
+            PartInfo info = tile.getPartInfo(slot);
             if (info != null) {
                 if (tag != null) {
                     if (info.getTile() != null) {
                         info.getTile().handlePartUpdateTag(tag);
+                        info.invalidateOcclusionBoxes();
                     } else {
                         MCMultiPart.log.error("Failed to handle the addition of the part " + state.getBlock().getRegistryName());
-                        return;
+                        return null;
                     }
                 }
-            } else {
-                MCMultiPart.log.error("Failed to handle the addition of the part " + state.getBlock().getRegistryName());
-                return;
+                return getContainerInWorld(info);
             }
-        } else {
-            MCMultiPart.log.error("Failed to handle the addition of the part " + state.getBlock().getRegistryName());
-            return;
         }
-        world.markForRerender(pos);
+        MCMultiPart.log.error("Failed to handle the addition of the part " + state.getBlock().getRegistryName());
+        return null;
     }
 
-    public static void handleUpdatePacket(World world, BlockPos pos, IPartSlot slot, BlockState state, SUpdateTileEntityPacket pkt) {
-        PartInfo info = MultipartHelper.getInfo(world, pos, slot).map(i -> i instanceof PartInfo ? (PartInfo) i : null).orElse(null);
+    public static TileMultipartContainer applyUpdate(World world, BlockPos pos, TileMultipartContainer container, IPartSlot slot,
+            BlockState state, SUpdateTileEntityPacket pkt) {
+        PartInfo info = getPartInfo(world, pos, container, slot);
         if (info != null) {
             info.setState(state);
             if (pkt != null) {
@@ -107,42 +147,56 @@ public final class PartInfo implements IPartInfo {
                 }
                 if (info.getTile() != null) {
                     info.getTile().onPartDataPacket(MCMultiPart.proxy.getNetworkManager(), pkt);
+                    info.invalidateOcclusionBoxes();
                 }
             } else {
                 info.setTile(info.part.createMultipartTile(world, slot, state));
             }
-        } else {
-            TileMultipartContainer tile = (TileMultipartContainer) MultipartHelper.getOrConvertContainer(world, pos).orElse(null);
-            if (tile != null) {
-                tile.addPart(slot, state);
-                tile = (TileMultipartContainer) MultipartHelper.getOrConvertContainer(world, pos).orElse(null);
-                info = (PartInfo) tile.get(slot).orElse(null);
-                if (info != null) {
-                    if (pkt != null) {
-                        if (info.getTile() != null) {
-                            info.getTile().onPartDataPacket(MCMultiPart.proxy.getNetworkManager(), pkt);
-                        } else {
-                            MCMultiPart.log.error("Failed to handle update packet for part " + state.getBlock().getRegistryName());
-                            return;
-                        }
+            return getContainerInWorld(info);
+        }
+        TileMultipartContainer tile = container != null ? container
+                : (TileMultipartContainer) MultipartHelper.getOrConvertContainer(world, pos).orElse(null);
+        if (tile != null) {
+            tile.addPart(slot, state);
+            info = tile.getPartInfo(slot);
+            if (info != null) {
+                if (pkt != null) {
+                    if (info.getTile() != null) {
+                        info.getTile().onPartDataPacket(MCMultiPart.proxy.getNetworkManager(), pkt);
+                    info.invalidateOcclusionBoxes();
+                    } else {
+                        MCMultiPart.log.error("Failed to handle update packet for part " + state.getBlock().getRegistryName());
+                        return null;
                     }
-                } else {
-                    MCMultiPart.log.error("Failed to handle update packet for part " + state.getBlock().getRegistryName());
-                    return;
                 }
-            } else {
-                MCMultiPart.log.error("Failed to handle update packet for part " + state.getBlock().getRegistryName());
-                return;
+                return getContainerInWorld(info);
             }
         }
-        world.markForRerender(pos);
+        MCMultiPart.log.error("Failed to handle update packet for part " + state.getBlock().getRegistryName());
+        return null;
     }
 
-    public static void handleRemovalPacket(World world, BlockPos pos, IPartSlot slot) {
-        MultipartHelper.getInfo(world, pos, slot).map(i -> i instanceof PartInfo ? (PartInfo) i : null).ifPresent(info -> {
+    public static TileMultipartContainer applyRemoval(World world, BlockPos pos, TileMultipartContainer container, IPartSlot slot) {
+        PartInfo info = getPartInfo(world, pos, container, slot);
+        if (info != null) {
+            TileMultipartContainer tile = info.getContainer();
             info.remove();
-            world.markForRerender(pos);
-        });
+            return tile != null && tile.isInWorld() ? tile : null;
+        }
+        return container;
+    }
+
+    private static PartInfo getPartInfo(World world, BlockPos pos, TileMultipartContainer container, IPartSlot slot) {
+        if (container != null) {
+            return container.getPartInfo(slot);
+        }
+        return MultipartHelper.getInfo(world, pos, slot).map(i -> i instanceof PartInfo ? (PartInfo) i : null).orElse(null);
+    }
+
+    // Adding a part can replace the container, the part always knows the one it ended up in
+    private static TileMultipartContainer getContainerInWorld(PartInfo info) {
+        TileMultipartContainer container = info.getContainer();
+        return container != null && container.isInWorld() ? container : null;
     }
 
     @Override
@@ -167,6 +221,10 @@ public final class PartInfo implements IPartInfo {
         return slot;
     }
 
+    public int getSlotID() {
+        return slotID;
+    }
+
     @Override
     public IMultipart getPart() {
         return part;
@@ -187,12 +245,16 @@ public final class PartInfo implements IPartInfo {
     }
 
     public void setTile(IMultipartTile tile) {
+        IMultipartTile prevTile = this.tile;
         this.tile = tile;
         if (this.container != null && this.tile != null) {
             this.tile.setPartWorld(getPartWorld());
             this.tile.setPartPos(getPartPos());
             this.tile.setPartInfo(this);
         }
+        if (this.container != null && prevTile != tile) {
+            this.container.onPartTileChanged(this, prevTile);
+        }
     }
 
     private void setState(BlockState state, boolean checkTE) {
@@ -201,6 +263,7 @@ public final class PartInfo implements IPartInfo {
         }
         BlockState oldState = this.state;
         this.state = state;
+        this.occlusionBoxes = null;
 
         if (oldState == null || oldState.getBlock() != state.getBlock()) {
             this.part = MultipartRegistry.INSTANCE.getPart(state.getBlock());
@@ -210,6 +273,84 @@ public final class PartInfo implements IPartInfo {
         if (checkTE && this.tile == null) {
             setTile(part.createMultipartTile(getPartWorld(), getSlot(), state));
         }
+
+        if (container != null) {
+            container.onPartStateChanged(this);
+        }
+    }
+
+    // Decomposed occlusion shape, kept until the state changes or the part reports a shape change
+    public OcclusionBoxes getOcclusionBoxes() {
+        OcclusionBoxes boxes = occlusionBoxes;
+        if (boxes == null) {
+            occlusionBoxes = boxes = OcclusionBoxes.of(part.getOcclusionShape(this));
+        }
+        return boxes;
+    }
+
+    public void invalidateOcclusionBoxes() {
+        occlusionBoxes = null;
+    }
+
+    // Sleeping parts aren't ticked by their container until they're woken up
+    public boolean isSleeping() {
+        return sleeping;
+    }
+
+    public void setSleeping(boolean sleeping) {
+        this.sleeping = sleeping;
+    }
+
+    public boolean consumeThrottledTick() {
+        if (throttledTicks > 0) {
+            throttledTicks--;
+            return true;
+        }
+        return false;
+    }
+
+    public void throttle(int ticks) {
+        throttledTicks = Math.max(throttledTicks, ticks);
+    }
+
+    public long getLastTick() {
+        return lastTick;
+    }
+
+    public void setLastTick(long lastTick) {
+        this.lastTick = lastTick;
+    }
+
+    public boolean isTickDeferred() {
+        return tickDeferred;
+    }
+
+    public void setTickDeferred(boolean tickDeferred) {
+        this.tickDeferred = tickDeferred;
+    }
+
+    public CompoundNBT getSyncTag() {
+        return syncTag;
+    }
+
+    public int getSyncSequence() {
+        return syncSequence;
+    }
+
+    public void setSyncTag(CompoundNBT syncTag, int syncSequence) {
+        this.syncTag = syncTag;
+        this.syncSequence = syncSequence;
+    }
+
+    // Drops the delta baseline so the next change sends all the data. Returns false if that was already requested
+    // since the last data was sent, as every watcher gets the full data anyway.
+    public boolean requestResync() {
+        if (resyncSequence == syncSequence) {
+            return false;
+        }
+        resyncSequence = syncSequence;
+        syncTag = null;
+        return true;
     }
 
     public void setWorld(World world) {
@@ -261,24 +402,8 @@ public final class PartInfo implements IPartInfo {
         return world;
     }
 
-    public void copyMetaFrom(PartInfo info) {
-        scheduledTicks = info.scheduledTicks;
-    }
-
-    public void scheduleTick(int delay) {
-        if (scheduledTicks == null) {
-            scheduledTicks = new HashSet<>();
-        }
-        scheduledTicks.add(delay + getContainer().getPartWorld().getWorldInfo().getGameTime());
-        getContainer().getPartWorld().getPendingBlockTicks().scheduleTick(getContainer().getPartPos(), MCMultiPart.multipart, delay);
-    }
-
-    public boolean checkAndRemoveTick() {
-        return scheduledTicks != null && scheduledTicks.remove(getContainer().getPartWorld().getWorldInfo().getGameTime());
-    }
-
     public boolean hasPendingTicks() {
-        return scheduledTicks != null && !scheduledTicks.isEmpty();
+        return container != null && container.hasScheduledTick(this);
     }
 
     @OnlyIn(Dist.CLIENT)
@@ -2,35 +2,122 @@ package mcmultipart.network;
 
 import mcmultipart.slot.SlotRegistry;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 
+// Pending actions, coalesced per position and slot as they're added so that only what the client needs to end up in the
+// same state gets sent
 public class ChangeList {
+    private final Map<Key, List<MultipartAction>> actions = new LinkedHashMap<>();
     private final List<MultipartAction> changes = new ArrayList<>();
     private final List<MultipartAction> changesView = Collections.unmodifiableList(changes);
+    private boolean dirty = false, sorted = false;
 
     public void addChange(MultipartAction action) {
-        changes.add(action);
+        Key key = new Key(action.pos.toLong(), SlotRegistry.INSTANCE.getSlotID(action.slot));
+        List<MultipartAction> list = actions.computeIfAbsent(key, k -> new ArrayList<>(1));
+        coalesce(list, action);
+        if (list.isEmpty()) {
+            actions.remove(key);
+        }
+        dirty = true;
+    }
+
+    private static void coalesce(List<MultipartAction> list, MultipartAction action) {
+        MultipartAction last = list.isEmpty() ? null : list.get(list.size() - 1);
+        switch (action.type) {
+            case MultipartAction.Add.TYPE:
+                // The addition replaces whatever is in the slot, earlier changes to it don't matter anymore
+                while (last != null && last.type != MultipartAction.Remove.TYPE) {
+                    list.remove(list.size() - 1);
+                    last = list.isEmpty() ? null : list.get(list.size() - 1);
+                }
+                list.add(action);
+                break;
+            case MultipartAction.Change.TYPE:
+                if (last != null && last.type == MultipartAction.Change.TYPE) {
+                    list.set(list.size() - 1, action);
+                } else if (last != null && last.type == MultipartAction.Add.TYPE && ((MultipartAction.DataCarrier) action).source != null) {
+                    // Changed before the client even knew about it, send the part as it is now
+                    list.set(list.size() - 1, new MultipartAction.Add(((MultipartAction.DataCarrier) action).source));
+                } else {
+                    list.add(action);
+                }
+                break;
+            case MultipartAction.Remove.TYPE:
+                while (last != null && last.type == MultipartAction.Change.TYPE) {
+                    list.remove(list.size() - 1);
+                    last = list.isEmpty() ? null : list.get(list.size() - 1);
+                }
+                if (last != null && last.type == MultipartAction.Add.TYPE) {
+                    list.remove(list.size() - 1); // Added and removed again, the client never needs to see it
+                } else if (last == null || last.type != MultipartAction.Remove.TYPE) {
+                    list.add(action);
+                }
+                break;
+            default:
+                list.add(action);
+        }
     }
 
     public void sort() {
-        // group by same position and same slot id
-        changes.sort((a1, a2) -> {
-            int i = a1.pos.compareTo(a2.pos);
-            if (i != 0) {
-                return i;
-            } else {
-                return SlotRegistry.INSTANCE.getSlotID(a2.slot) - SlotRegistry.INSTANCE.getSlotID(a1.slot);
-            }
-        });
+        if (!sorted) {
+            sorted = true;
+            dirty = true;
+        }
     }
 
     public void clear() {
+        actions.clear();
         changes.clear();
+        dirty = false;
+        sorted = false;
+    }
+
+    public boolean isEmpty() {
+        return actions.isEmpty();
     }
 
     public List<MultipartAction> getChanges() {
+        if (dirty) {
+            dirty = false;
+            changes.clear();
+            Collection<Map.Entry<Key, List<MultipartAction>>> entries = actions.entrySet();
+            if (sorted) {
+                // group by same position and same slot id
+                List<Map.Entry<Key, List<MultipartAction>>> list = new ArrayList<>(entries);
+                list.sort((e1, e2) -> {
+                    MultipartAction a1 = e1.getValue().get(0), a2 = e2.getValue().get(0);
+                    int i = a1.pos.compareTo(a2.pos);
+                    return i != 0 ? i : Integer.compare(e2.getKey().slotID, e1.getKey().slotID);
+                });
+                entries = list;
+            }
+            for (Map.Entry<Key, List<MultipartAction>> entry : entries) {
+                changes.addAll(entry.getValue());
+            }
+        }
         return changesView;
     }
+
+    private static final class Key {
+
+        private final long pos;
+        private final int slotID;
+
+        private Key(long pos, int slotID) {
+            this.pos = pos;
+            this.slotID = slotID;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).pos == pos && ((Key) obj).slotID == slotID;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(pos) * 31 + slotID;
+        }
+
+    }
 }
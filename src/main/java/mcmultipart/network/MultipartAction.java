@@ -2,13 +2,20 @@ package mcmultipart.network;
 
 import com.google.common.base.Throwables;
 import mcmultipart.api.container.IPartInfo;
+import mcmultipart.api.multipart.MultipartHelper;
 import mcmultipart.api.slot.IPartSlot;
+import mcmultipart.block.TileMultipartContainer;
 import mcmultipart.multipart.PartInfo;
 import net.minecraft.block.BlockState;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.INBT;
+import net.minecraft.nbt.ListNBT;
+import net.minecraft.nbt.StringNBT;
 import net.minecraft.network.play.server.SUpdateTileEntityPacket;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.common.util.Constants;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
@@ -26,22 +33,29 @@ public abstract class MultipartAction {
         this.type = type;
     }
 
-    public abstract void handlePacket(PlayerEntity player);
+    public void handlePacket(PlayerEntity player) {
+        apply(player.world, null);
+        player.world.markForRerender(pos);
+    }
+
+    // Applies the action on the client without rerendering, see the apply methods in PartInfo
+    public abstract TileMultipartContainer apply(World world, TileMultipartContainer container);
 
     public static final class Add extends DataCarrier {
         public static final int TYPE = 0;
 
         public Add(BlockPos pos, IPartSlot slot, BlockState state, CompoundNBT data) {
-            super(TYPE, pos, slot, state, data);
+            super(TYPE, pos, slot, state, data, null);
         }
 
         public Add(IPartInfo info) {
-            this(info.getPartPos(), info.getSlot(), info.getState(), info.getTile() != null ? info.getTile().getPartUpdateTag() : null);
+            super(TYPE, info.getPartPos(), info.getSlot(), info.getState(),
+                    info.getTile() != null ? info.getTile().getPartUpdateTag() : null, info);
         }
 
         @Override
-        public void handlePacket(PlayerEntity player) {
-            PartInfo.handleAdditionPacket(player.world, pos, slot, state, data);
+        public TileMultipartContainer apply(World world, TileMultipartContainer container) {
+            return PartInfo.applyAddition(world, pos, container, slot, state, data);
         }
     }
 
@@ -72,17 +86,108 @@ public abstract class MultipartAction {
             };
         }
 
+        private CompoundNBT delta; // Only the keys that changed since the data with the previous sequence number
+        private int sequence = -1;
+
         public Change(BlockPos pos, IPartSlot slot, BlockState state, CompoundNBT data) {
-            super(TYPE, pos, slot, state, data);
+            super(TYPE, pos, slot, state, data, null);
+        }
+
+        public Change(BlockPos pos, IPartSlot slot, BlockState state, CompoundNBT data, int sequence, boolean isDelta) {
+            super(TYPE, pos, slot, state, isDelta ? null : data, null);
+            this.delta = isDelta ? data : null;
+            this.sequence = sequence;
         }
 
         public Change(IPartInfo info) {
-            this(info.getPartPos(), info.getSlot(), info.getState(), info.getTile() != null ? getUpdateTag.apply(info.getTile().getPartUpdatePacket()) : null);
+            super(TYPE, info.getPartPos(), info.getSlot(), info.getState(),
+                    info.getTile() != null ? getUpdateTag.apply(info.getTile().getPartUpdatePacket()) : null, info);
+        }
+
+        public CompoundNBT getDelta() {
+            return delta;
+        }
+
+        public int getSequence() {
+            return sequence;
+        }
+
+        // Numbers the data sent for the source part and, if any player can use them, computes the delta to the
+        // previously sent data. Done once per flush, as all the players get the same sequence numbers.
+        public void prepareSync(boolean trackDelta) {
+            if (!(source instanceof PartInfo) || sequence >= 0) {
+                return;
+            }
+            PartInfo info = (PartInfo) source;
+            CompoundNBT last = info.getSyncTag();
+            sequence = info.getSyncSequence() + 1;
+            delta = trackDelta && last != null && data != null ? diff(last, data) : null;
+            info.setSyncTag(trackDelta && data != null ? data.copy() : null, sequence);
+        }
+
+        private static CompoundNBT diff(CompoundNBT from, CompoundNBT to) {
+            CompoundNBT set = new CompoundNBT();
+            ListNBT removed = new ListNBT();
+            for (String key : to.keySet()) {
+                INBT value = to.get(key);
+                if (!value.equals(from.get(key))) {
+                    set.put(key, value);
+                }
+            }
+            for (String key : from.keySet()) {
+                if (!to.contains(key)) {
+                    removed.add(new StringNBT(key));
+                }
+            }
+            if (set.size() + removed.size() >= to.size()) {
+                return null; // Not worth it, send everything
+            }
+            CompoundNBT delta = new CompoundNBT();
+            delta.put("set", set);
+            delta.put("removed", removed);
+            return delta;
+        }
+
+        private static CompoundNBT merge(CompoundNBT base, CompoundNBT delta) {
+            CompoundNBT merged = base.copy();
+            ListNBT removed = delta.getList("removed", Constants.NBT.TAG_STRING);
+            for (int i = 0; i < removed.size(); i++) {
+                merged.remove(removed.getString(i));
+            }
+            CompoundNBT set = delta.getCompound("set");
+            for (String key : set.keySet()) {
+                merged.put(key, set.get(key));
+            }
+            return merged;
         }
 
         @Override
-        public void handlePacket(PlayerEntity player) {
-            PartInfo.handleUpdatePacket(player.world, pos, slot, state, data != null ? new SUpdateTileEntityPacket(pos, 0, data) : null);
+        public TileMultipartContainer apply(World world, TileMultipartContainer container) {
+            CompoundNBT tag = data;
+            if (delta != null) {
+                PartInfo info = getPartInfo(world, container);
+                if (info == null || info.getSyncTag() == null || info.getSyncSequence() != sequence - 1) {
+                    // Missed some data, or never had it in the first place, ask for all of it again
+                    MultipartNetworkHandler.sendToServer(new PacketMultipartResync(pos, slot));
+                    return container;
+                }
+                tag = merge(info.getSyncTag(), delta);
+            }
+            container = PartInfo.applyUpdate(world, pos, container, slot, state, tag != null ? new SUpdateTileEntityPacket(pos, 0, tag) : null);
+            if (sequence >= 0) {
+                PartInfo info = getPartInfo(world, container);
+                if (info != null) {
+                    info.setSyncTag(tag != null ? tag.copy() : null, sequence);
+                }
+            }
+            return container;
+        }
+
+        private PartInfo getPartInfo(World world, TileMultipartContainer container) {
+            if (container != null) {
+                return container.getPartInfo(slot);
+            }
+            return MultipartHelper.getInfo(world, pos, slot).map(i -> i instanceof PartInfo ? (PartInfo) i : null).orElse(null);
         }
     }
 
@@ -94,19 +199,21 @@ public abstract class MultipartAction {
         }
 
         @Override
-        public void handlePacket(PlayerEntity player) {
-            PartInfo.handleRemovalPacket(player.world, pos, slot);
+        public TileMultipartContainer apply(World world, TileMultipartContainer container) {
+            return PartInfo.applyRemoval(world, pos, container, slot);
         }
     }
 
     public static abstract class DataCarrier extends MultipartAction {
         public final BlockState state;
         public final CompoundNBT data;
+        public final IPartInfo source; // The part the action was created from, null if it was decoded from a packet
 
-        private DataCarrier(int type, BlockPos pos, IPartSlot slot, BlockState state, CompoundNBT data) {
+        private DataCarrier(int type, BlockPos pos, IPartSlot slot, BlockState state, CompoundNBT data, IPartInfo source) {
             super(type, pos, slot);
             this.state = state;
             this.data = data;
+            this.source = source;
         }
     }
 }
@@ -1,27 +1,51 @@
 package mcmultipart.network;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import mcmultipart.MCMPConfig;
 import mcmultipart.MCMultiPart;
 import net.minecraft.client.Minecraft;
-import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.PlayerEntityMP;
-import net.minecraft.server.management.PlayerChunkMap;
+import net.minecraft.network.IPacket;
+import net.minecraft.network.NetworkManager;
+import net.minecraft.server.management.PlayerChunkMapEntry;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.dimension.DimensionType;
 import net.minecraftforge.common.DimensionManager;
 import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.fml.LogicalSidedProvider;
+import net.minecraftforge.fml.network.NetworkDirection;
 import net.minecraftforge.fml.network.NetworkEvent;
-import net.minecraftforge.fml.network.PacketDistributor;
-import org.apache.commons.lang3.tuple.Triple;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 public class MultipartNetworkHandler {
 
-    private static Map<Triple<Integer, Integer, Integer>, ChangeList> changeList = new HashMap<>();
+    // Optional features, enabled per player for the ones both sides support
+    public static final int FEATURE_COMPRESSION = 1;
+    public static final int FEATURE_COMPACT = 2;
+    public static final int FEATURE_DELTA = 4;
+    public static final int SUPPORTED_FEATURES = FEATURE_COMPRESSION | FEATURE_COMPACT | FEATURE_DELTA;
+
+    private static final int MAX_POOLED_LISTS = 64;
+
+    // Pending changes per dimension, keyed by packed chunk position
+    private static final Map<DimensionType, Long2ObjectMap<ChangeList>> changeLists = new IdentityHashMap<>();
+    private static final ArrayDeque<ChangeList> pooledLists = new ArrayDeque<>();
+    // Changes usually come in bursts from the same world, this saves looking up its dimension every time
+    private static World lastWorld;
+    private static Long2ObjectMap<ChangeList> lastChangeLists;
+    // Keyed by connection as the player entity gets replaced on respawn
+    private static final Map<NetworkManager, Integer> features = new WeakHashMap<>();
 
     public static void init() {
         // wrapper.registerMessage(PacketMultipartChange.class, PacketMultipartChange.class, 0, Side.CLIENT);
@@ -39,48 +63,141 @@ public class MultipartNetworkHandler {
                 packetMultipartAction.handleServer(context.getSender());
             }
         });
+        MCMultiPart.channel.registerMessage(1, PacketMultipartFeatures.class, PacketMultipartFeatures::toBytes, buffer -> {
+            PacketMultipartFeatures packet = new PacketMultipartFeatures();
+            packet.fromBytes(buffer);
+            return packet;
+        }, (packetMultipartFeatures, contextSupplier) -> {
+            NetworkEvent.Context context = contextSupplier.get();
+            if (context.getDirection().getReceptionSide() == LogicalSide.CLIENT) {
+                packetMultipartFeatures.handleClient(Minecraft.getInstance().player);
+            } else {
+                context.enqueueWork(() -> packetMultipartFeatures.handleServer(context.getSender()));
+            }
+            context.setPacketHandled(true);
+        });
+        MCMultiPart.channel.registerMessage(2, PacketMultipartResync.class, PacketMultipartResync::toBytes, buffer -> {
+            PacketMultipartResync packet = new PacketMultipartResync();
+            packet.fromBytes(buffer);
+            return packet;
+        }, (packetMultipartResync, contextSupplier) -> {
+            NetworkEvent.Context context = contextSupplier.get();
+            if (context.getDirection().getReceptionSide() == LogicalSide.SERVER) {
+                context.enqueueWork(() -> packetMultipartResync.handleServer(context.getSender()));
+            }
+            context.setPacketHandled(true);
+        });
+    }
+
+    public static void onPlayerLoggedIn(PlayerEntityMP player) {
+        MCMultiPart.channel.sendTo(new PacketMultipartFeatures(SUPPORTED_FEATURES), player.connection.getNetworkManager(),
+                NetworkDirection.PLAY_TO_CLIENT);
+    }
+
+    public static void setFeatures(PlayerEntityMP player, int features) {
+        MultipartNetworkHandler.features.put(player.connection.getNetworkManager(), features);
+    }
+
+    public static int getFeatures(PlayerEntityMP player) {
+        return features.getOrDefault(player.connection.getNetworkManager(), 0);
     }
 
     public static void queuePartChange(World world, MultipartAction action) {
         if (world.isRemote) return;
 
-        int chunkX = action.pos.getX() >> 4;
-        int chunkZ = action.pos.getZ() >> 4;
-
-        Triple<Integer, Integer, Integer> key = Triple.of(chunkX, chunkZ, world.getDimension().getType().getId());
-        ChangeList cl = changeList.getOrDefault(key, new ChangeList());
-        changeList.put(key, cl);
+        Long2ObjectMap<ChangeList> lists = getChangeLists(world);
+        long key = ChunkPos.asLong(action.pos.getX() >> 4, action.pos.getZ() >> 4);
+        ChangeList cl = lists.get(key);
+        if (cl == null) {
+            cl = pooledLists.isEmpty() ? new ChangeList() : pooledLists.pop();
+            lists.put(key, cl);
+        }
 
         cl.addChange(action);
     }
 
+    private static Long2ObjectMap<ChangeList> getChangeLists(World world) {
+        if (world != lastWorld) {
+            lastChangeLists = changeLists.computeIfAbsent(world.getDimension().getType(), d -> new Long2ObjectOpenHashMap<>());
+            lastWorld = world;
+        }
+        return lastChangeLists;
+    }
+
     public static void flushChanges() {
-        for (Map.Entry<Triple<Integer, Integer, Integer>, ChangeList> list : changeList.entrySet()) {
-            flushChanges(list.getKey().getLeft(), list.getKey().getMiddle(), list.getKey().getRight(), list.getValue());
+        for (Map.Entry<DimensionType, Long2ObjectMap<ChangeList>> dimension : changeLists.entrySet()) {
+            Long2ObjectMap<ChangeList> lists = dimension.getValue();
+            if (lists.isEmpty()) {
+                continue;
+            }
+            WorldServer world = getWorld(dimension.getKey());
+            for (Long2ObjectMap.Entry<ChangeList> list : Long2ObjectMaps.fastIterable(lists)) {
+                flushChanges(world, ChunkPos.getX(list.getLongKey()), ChunkPos.getZ(list.getLongKey()), list.getValue());
+                recycle(list.getValue());
+            }
+            lists.clear();
         }
-        changeList.clear();
+        lastWorld = null; // Don't keep unloaded worlds around
+        lastChangeLists = null;
     }
 
     public static void flushChanges(World world, BlockPos pos) {
         if (world.isRemote) return;
         int chunkX = pos.getX() >> 4;
-        int chunkY = pos.getZ() >> 4;
-        int dim = world.getDimension().getType().getId();
-        Triple<Integer, Integer, Integer> key = Triple.of(chunkX, chunkY, dim);
-        ChangeList cl = changeList.get(key);
+        int chunkZ = pos.getZ() >> 4;
+        Long2ObjectMap<ChangeList> lists = changeLists.get(world.getDimension().getType());
+        ChangeList cl = lists != null ? lists.remove(ChunkPos.asLong(chunkX, chunkZ)) : null;
         if (cl != null) {
-            flushChanges(chunkX, chunkY, dim, cl);
-            changeList.remove(key);
+            flushChanges(getWorld(world.getDimension().getType()), chunkX, chunkZ, cl);
+            recycle(cl);
         }
     }
 
-    private static void flushChanges(int chunkX, int chunkY, int dim, ChangeList list) {
-        WorldServer world = DimensionManager.getWorld(LogicalSidedProvider.INSTANCE.get(LogicalSide.SERVER), DimensionType.getById(dim), false, false);
+    private static WorldServer getWorld(DimensionType dimension) {
+        return DimensionManager.getWorld(LogicalSidedProvider.INSTANCE.get(LogicalSide.SERVER), dimension, false, false);
+    }
+
+    private static void recycle(ChangeList list) {
+        list.clear();
+        if (pooledLists.size() < MAX_POOLED_LISTS) {
+            pooledLists.push(list);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void flushChanges(WorldServer world, int chunkX, int chunkZ, ChangeList list) {
         if (world != null) {
-            PlayerChunkMap manager = world.getPlayerChunkMap();
-            for (PlayerEntity player : world.playerEntities) {
-                if (manager.isPlayerWatchingChunk((PlayerEntityMP) player, chunkX, chunkY)) {
-                    MCMultiPart.channel.send(PacketDistributor.PLAYER.with(() -> (PlayerEntityMP) player), new PacketMultipartAction(list));
+            // Only the chunk's own watchers get the changes, same as vanilla block updates
+            PlayerChunkMapEntry entry = world.getPlayerChunkMap().getEntry(chunkX, chunkZ);
+            if (entry == null || !entry.isSentToPlayers()) {
+                return; // Nobody has the chunk yet
+            }
+            List<PlayerEntityMP> players = entry.getWatchingPlayers();
+            if (players.isEmpty()) {
+                return;
+            }
+            list.sort();
+            boolean trackDelta = false;
+            for (PlayerEntityMP player : players) {
+                trackDelta |= (getFeatures(player) & FEATURE_DELTA) != 0;
+            }
+            for (MultipartAction action : list.getChanges()) {
+                if (action instanceof MultipartAction.Change) {
+                    ((MultipartAction.Change) action).prepareSync(trackDelta);
+                }
+            }
+            // Encoded once per set of features the watchers use, which usually is the same for all of them, then sent
+            // as is, split up if there's a lot of changes
+            List<IPacket<?>>[] packets = new List[SUPPORTED_FEATURES + 1];
+            for (PlayerEntityMP player : players) {
+                int playerFeatures = getFeatures(player);
+                if (packets[playerFeatures] == null) {
+                    List<IPacket<?>> encoded = packets[playerFeatures] = new ArrayList<>(1);
+                    PacketMultipartAction.encode(list, playerFeatures, MCMPConfig.changePacketSize(),
+                            packet -> encoded.add(MCMultiPart.channel.toVanillaPacket(packet, NetworkDirection.PLAY_TO_CLIENT)));
+                }
+                for (IPacket<?> packet : packets[playerFeatures]) {
+                    player.connection.sendPacket(packet);
                 }
             }
         }
@@ -1,18 +1,44 @@
 package mcmultipart.network;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import mcmultipart.MCMPConfig;
 import mcmultipart.MCMultiPart;
 import mcmultipart.api.slot.IPartSlot;
+import mcmultipart.block.TileMultipartContainer;
 import net.minecraft.block.BlockState;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.SectionPos;
+import net.minecraft.world.World;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 public class PacketMultipartAction extends Packet<PacketMultipartAction> {
 
+    private static final int FLAG_COMPRESSED = 1;
+    private static final int FLAG_COMPACT = 2;
+    private static final int FLAG_DELTA = 4;
+    private static final int MAX_INFLATED_SIZE = 2097152;
+    // Only ever encoded on the server thread
+    private static final Deflater deflater = new Deflater();
+    private static final byte[] deflateBuffer = new byte[8192];
+
     private final ChangeList changes;
+    private final ByteBuf payload;
 
     public PacketMultipartAction() {
         this(new ChangeList());
@@ -20,11 +46,122 @@ public class PacketMultipartAction extends Packet<PacketMultipartAction> {
 
     public PacketMultipartAction(ChangeList changes) {
         this.changes = changes;
+        this.payload = null;
+    }
+
+    private PacketMultipartAction(ByteBuf payload) {
+        this.changes = null;
+        this.payload = payload;
+    }
+
+    // Splits the changes into packets of about maxSize bytes each, never splitting the changes to a single position.
+    // Every packet can be decoded and applied on its own, and they arrive in the order they're sent in.
+    public static void encode(ChangeList changes, int features, int maxSize, Consumer<PacketMultipartAction> consumer) {
+        List<MultipartAction> l = changes.getChanges();
+        int threshold = (features & MultipartNetworkHandler.FEATURE_COMPRESSION) != 0 ? MCMPConfig.changeCompressionThreshold() : 0;
+        boolean compact = (features & MultipartNetworkHandler.FEATURE_COMPACT) != 0 && isSingleChunk(l);
+        boolean delta = (features & MultipartNetworkHandler.FEATURE_DELTA) != 0;
+        int start = 0;
+        while (start < l.size()) {
+            Encoder encoder = new Encoder(compact, delta);
+            int end = start;
+            while (end < l.size()) {
+                int groupEnd = end + 1;
+                while (groupEnd < l.size() && l.get(groupEnd).pos.equals(l.get(end).pos)) {
+                    groupEnd++;
+                }
+                if (end > start && groupEnd - start > 0xFFFF) {
+                    break;
+                }
+                encoder.mark();
+                encoder.writeEntries(l, end, groupEnd);
+                if (end > start && encoder.size() > maxSize) {
+                    encoder.reset(); // Goes in the next packet instead
+                    break;
+                }
+                end = groupEnd;
+            }
+            ByteBuf buf = encoder.finish(l.get(start).pos, end - start);
+            consumer.accept(new PacketMultipartAction(threshold > 0 && buf.readableBytes() >= threshold ? deflate(buf) : buf));
+            start = end;
+        }
+    }
+
+    // Chunk relative positions only work if everything is in the same chunk and within the 8 bits of height they get
+    private static boolean isSingleChunk(List<MultipartAction> l) {
+        if (l.isEmpty()) {
+            return false;
+        }
+        int chunkX = l.get(0).pos.getX() >> 4, chunkZ = l.get(0).pos.getZ() >> 4;
+        for (MultipartAction entry : l) {
+            BlockPos pos = entry.pos;
+            if (pos.getX() >> 4 != chunkX || pos.getZ() >> 4 != chunkZ || pos.getY() < 0 || pos.getY() > 255) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ByteBuf deflate(ByteBuf body) {
+        int flags = body.readUnsignedByte();
+        byte[] input = new byte[body.readableBytes()];
+        body.readBytes(input);
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+
+        PacketBuffer out = new PacketBuffer(Unpooled.buffer(input.length / 2 + 16));
+        out.writeByte(flags | FLAG_COMPRESSED);
+        out.writeVarInt(input.length);
+        while (!deflater.finished()) {
+            int n = deflater.deflate(deflateBuffer);
+            out.writeBytes(deflateBuffer, 0, n);
+        }
+        return out;
+    }
+
+    private static PacketBuffer inflate(PacketBuffer buf) {
+        int length = buf.readVarInt();
+        if (length < 0 || length > MAX_INFLATED_SIZE) {
+            throw new DecoderException("Badly compressed multipart packet: size of " + length + " is invalid");
+        }
+        byte[] input = new byte[buf.readableBytes()];
+        buf.readBytes(input);
+        byte[] output = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            if (inflater.inflate(output) != length) {
+                throw new DecoderException("Badly compressed multipart packet: inflated size doesn't match " + length);
+            }
+        } catch (DataFormatException e) {
+            throw new DecoderException(e);
+        } finally {
+            inflater.end();
+        }
+        return new PacketBuffer(Unpooled.wrappedBuffer(output));
     }
 
     @Override
     public void handleClient(PlayerEntity player) {
-        changes.getChanges().forEach(it -> it.handlePacket(player));
+        World world = player.world;
+        List<MultipartAction> l = changes.getChanges();
+        LongSet sections = new LongOpenHashSet();
+        // Changes to the same position come one after the other, so they're applied to the same container and only
+        // refreshed once. Rerendering a position rebuilds its whole section, so that's done once per section.
+        for (int i = 0; i < l.size(); ) {
+            BlockPos pos = l.get(i).pos;
+            TileMultipartContainer container = null;
+            for (; i < l.size() && l.get(i).pos.equals(pos); i++) {
+                container = l.get(i).apply(world, container);
+            }
+            if (container != null) {
+                container.requestModelDataUpdate();
+            }
+            if (sections.add(SectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4))) {
+                world.markForRerender(pos);
+            }
+        }
     }
 
     @Override
@@ -33,13 +170,21 @@ public class PacketMultipartAction extends Packet<PacketMultipartAction> {
 
     /*
      * Format:
+     * flags: byte (bit 0: the rest is deflated, prefixed with its inflated size as a var int, bit 1: compact, bit 2: delta)
+     * [
+     *   chunkx: int
+     *   chunkz: int
+     *   slots: var int, slots * slotid: var int
+     *   states: var int, states * stateid: var int
+     * ] if compact
      * size: short
      * size * {
-     *   bits: byte (bit 7: repeat coords, bit 6: repeat slot id, bit 0-1: entry type)
-     *   [pos: BlockPos] if there's a new position
-     *   [slotid: var int] if there's a new slot id
+     *   bits: byte (bit 7: repeat coords, bit 6: repeat slot id, bit 5: data is a delta, bit 0-1: entry type)
+     *   [pos: BlockPos, or x << 12 | z << 8 | y: short within the chunk if compact] if there's a new position
+     *   [slotid: var int, index in the slots if compact] if there's a new slot id
      *   [
-     *     stateid: var int
+     *     stateid: var int, index in the states if compact
+     *     [sequence + 1: var int, 0 if none] if delta and type is CHANGE
      *     data: NBT?
      *   ] if type is ADD or CHANGE
      * }
@@ -47,47 +192,33 @@ public class PacketMultipartAction extends Packet<PacketMultipartAction> {
 
     @Override
     public void toBytes(PacketBuffer buf) {
-        changes.sort();
-        List<MultipartAction> l = changes.getChanges();
-        buf.writeShort(l.size());
-        boolean prevHasSameCoords = false;
-        boolean prevHasSameSlot = false;
-        for (int i = 0; i < l.size(); i++) {
-            MultipartAction entry = l.get(i);
-            int entrySlot = MCMultiPart.slotRegistry.getID(entry.slot);
-
-            boolean nextHasSameCoords = false;
-            boolean nextHasSameSlot = false;
-            if (i + 1 < l.size()) {
-                MultipartAction next = l.get(i + 1);
-                int nextSlot = MCMultiPart.slotRegistry.getID(next.slot);
-                nextHasSameCoords = next.pos.equals(entry.pos);
-                nextHasSameSlot = nextSlot == entrySlot;
-            }
-
-            buf.writeByte(entry.type |
-                    (prevHasSameCoords ? 128 : 0) |
-                    (prevHasSameSlot ? 64 : 0));
-
-            if (!prevHasSameCoords)
-                buf.writeBlockPos(entry.pos);
-            if (!prevHasSameSlot)
-                buf.writeVarInt(entrySlot);
-
-            if (entry instanceof MultipartAction.DataCarrier) {
-                MultipartAction.DataCarrier dc = (MultipartAction.DataCarrier) entry;
-                buf.writeVarInt(MCMultiPart.stateMap.get(dc.state));
-                buf.writeCompoundTag(dc.data);
-            }
-
-            prevHasSameCoords = nextHasSameCoords;
-            prevHasSameSlot = nextHasSameSlot;
+        if (payload != null) {
+            buf.writeBytes(payload, payload.readerIndex(), payload.readableBytes());
+            return;
         }
+        List<MultipartAction> l = changes.getChanges();
+        Encoder encoder = new Encoder(false, false);
+        encoder.writeEntries(l, 0, l.size());
+        buf.writeBytes(encoder.finish(BlockPos.ORIGIN, l.size()));
     }
 
     @Override
     public void fromBytes(PacketBuffer buf) {
         changes.clear();
+        int flags = buf.readUnsignedByte();
+        if ((flags & FLAG_COMPRESSED) != 0) {
+            buf = inflate(buf);
+        }
+        boolean compact = (flags & FLAG_COMPACT) != 0;
+        boolean delta = (flags & FLAG_DELTA) != 0;
+        int originX = 0, originZ = 0;
+        int[] slots = null, states = null;
+        if (compact) {
+            originX = buf.readInt() << 4;
+            originZ = buf.readInt() << 4;
+            slots = readPalette(buf);
+            states = readPalette(buf);
+        }
         int partsCount = buf.readUnsignedShort();
         BlockPos prevCoords = BlockPos.ORIGIN;
         int prevSlotId = 0;
@@ -95,21 +226,33 @@ public class PacketMultipartAction extends Packet<PacketMultipartAction> {
             short bits = buf.readUnsignedByte();
             boolean prevHasSameCoords = (bits & 128) != 0;
             boolean prevHasSameSlotId = (bits & 64) != 0;
+            boolean isDelta = (bits & 32) != 0;
             int type = bits & 31;
 
             BlockPos coords = prevCoords;
             int slotId = prevSlotId;
-            if (!prevHasSameCoords) coords = buf.readBlockPos();
-            if (!prevHasSameSlotId) slotId = buf.readVarInt();
+            if (!prevHasSameCoords) {
+                if (compact) {
+                    int local = buf.readUnsignedShort();
+                    coords = new BlockPos(originX | (local >> 12), local & 255, originZ | ((local >> 8) & 15));
+                } else {
+                    coords = buf.readBlockPos();
+                }
+            }
+            if (!prevHasSameSlotId) slotId = compact ? slots[buf.readVarInt()] : buf.readVarInt();
 
             IPartSlot slot = MCMultiPart.slotRegistry.getValue(slotId);
 
             BlockState state = null;
             CompoundNBT nbt = null;
+            int sequence = -1;
 
             if (type == MultipartAction.Add.TYPE || type == MultipartAction.Change.TYPE) {
-                int value = buf.readVarInt();
+                int value = compact ? states[buf.readVarInt()] : buf.readVarInt();
                 state = MCMultiPart.stateMap.getByValue(value);
+                if (delta && type == MultipartAction.Change.TYPE) {
+                    sequence = buf.readVarInt() - 1;
+                }
                 nbt = buf.readCompoundTag();
             }
 
@@ -118,7 +261,7 @@ public class PacketMultipartAction extends Packet<PacketMultipartAction> {
                     changes.addChange(new MultipartAction.Add(coords, slot, state, nbt));
                     break;
                 case MultipartAction.Change.TYPE:
-                    changes.addChange(new MultipartAction.Change(coords, slot, state, nbt));
+                    changes.addChange(new MultipartAction.Change(coords, slot, state, nbt, sequence, isDelta));
                     break;
                 case MultipartAction.Remove.TYPE:
                     changes.addChange(new MultipartAction.Remove(coords, slot));
@@ -130,4 +273,147 @@ public class PacketMultipartAction extends Packet<PacketMultipartAction> {
             prevSlotId = slotId;
         }
     }
+
+    private static int[] readPalette(PacketBuffer buf) {
+        int[] palette = new int[buf.readVarInt()];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = buf.readVarInt();
+        }
+        return palette;
+    }
+
+    private static final class Encoder {
+
+        private final boolean compact, delta;
+        private final PacketBuffer entries = new PacketBuffer(Unpooled.buffer());
+        private final Palette slots, states;
+        private int mark, slotsMark, statesMark;
+
+        private Encoder(boolean compact, boolean delta) {
+            this.compact = compact;
+            this.delta = delta;
+            this.slots = compact ? new Palette() : null;
+            this.states = compact ? new Palette() : null;
+        }
+
+        private void mark() {
+            mark = entries.writerIndex();
+            if (compact) {
+                slotsMark = slots.size();
+                statesMark = states.size();
+            }
+        }
+
+        private void reset() {
+            entries.writerIndex(mark);
+            if (compact) {
+                slots.truncate(slotsMark);
+                states.truncate(statesMark);
+            }
+        }
+
+        private int size() {
+            return compact ? entries.writerIndex() + 2 * (slots.size() + states.size()) + 10 : entries.writerIndex();
+        }
+
+        private void writeEntries(List<MultipartAction> l, int from, int to) {
+            boolean prevHasSameCoords = false;
+            boolean prevHasSameSlot = false;
+            for (int i = from; i < to; i++) {
+                MultipartAction entry = l.get(i);
+                int entrySlot = MCMultiPart.slotRegistry.getID(entry.slot);
+
+                boolean nextHasSameCoords = false;
+                boolean nextHasSameSlot = false;
+                if (i + 1 < to) {
+                    MultipartAction next = l.get(i + 1);
+                    int nextSlot = MCMultiPart.slotRegistry.getID(next.slot);
+                    nextHasSameCoords = next.pos.equals(entry.pos);
+                    nextHasSameSlot = nextSlot == entrySlot;
+                }
+
+                CompoundNBT entryDelta = delta && entry instanceof MultipartAction.Change ? ((MultipartAction.Change) entry).getDelta() : null;
+                entries.writeByte(entry.type |
+                        (prevHasSameCoords ? 128 : 0) |
+                        (prevHasSameSlot ? 64 : 0) |
+                        (entryDelta != null ? 32 : 0));
+
+                if (!prevHasSameCoords) {
+                    if (compact) {
+                        entries.writeShort((entry.pos.getX() & 15) << 12 | (entry.pos.getZ() & 15) << 8 | entry.pos.getY());
+                    } else {
+                        entries.writeBlockPos(entry.pos);
+                    }
+                }
+                if (!prevHasSameSlot)
+                    entries.writeVarInt(compact ? slots.indexOf(entrySlot) : entrySlot);
+
+                if (entry instanceof MultipartAction.DataCarrier) {
+                    MultipartAction.DataCarrier dc = (MultipartAction.DataCarrier) entry;
+                    int stateID = MCMultiPart.stateMap.get(dc.state);
+                    entries.writeVarInt(compact ? states.indexOf(stateID) : stateID);
+                    if (delta && entry instanceof MultipartAction.Change) {
+                        entries.writeVarInt(((MultipartAction.Change) entry).getSequence() + 1);
+                    }
+                    entries.writeCompoundTag(entryDelta != null ? entryDelta : dc.data);
+                }
+
+                prevHasSameCoords = nextHasSameCoords;
+                prevHasSameSlot = nextHasSameSlot;
+            }
+        }
+
+        private ByteBuf finish(BlockPos origin, int count) {
+            PacketBuffer header = new PacketBuffer(Unpooled.buffer());
+            header.writeByte((compact ? FLAG_COMPACT : 0) | (delta ? FLAG_DELTA : 0));
+            if (compact) {
+                header.writeInt(origin.getX() >> 4);
+                header.writeInt(origin.getZ() >> 4);
+                slots.write(header);
+                states.write(header);
+            }
+            header.writeShort(count);
+            return Unpooled.wrappedBuffer(header, entries);
+        }
+
+    }
+
+    // IDs in the order they're first used in a packet, so they can be referred to by their (small) index
+    private static final class Palette {
+
+        private final IntList values = new IntArrayList();
+        private final Int2IntMap indices = new Int2IntOpenHashMap();
+
+        private Palette() {
+            indices.defaultReturnValue(-1);
+        }
+
+        private int indexOf(int value) {
+            int index = indices.get(value);
+            if (index == -1) {
+                index = values.size();
+                values.add(value);
+                indices.put(value, index);
+            }
+            return index;
+        }
+
+        private int size() {
+            return values.size();
+        }
+
+        private void truncate(int size) {
+            for (int i = values.size() - 1; i >= size; i--) {
+                indices.remove(values.removeInt(i));
+            }
+        }
+
+        private void write(PacketBuffer buf) {
+            buf.writeVarInt(values.size());
+            for (int i = 0; i < values.size(); i++) {
+                buf.writeVarInt(values.getInt(i));
+            }
+        }
+
+    }
 }
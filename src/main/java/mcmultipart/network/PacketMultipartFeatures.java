@@ -0,0 +1,40 @@
+package mcmultipart.network;
+
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.player.PlayerEntityMP;
+import net.minecraft.network.PacketBuffer;
+
+// Sent by the server on login with the optional network features it supports, the client answers with the ones
+// it supports too
+public class PacketMultipartFeatures extends Packet<PacketMultipartFeatures> {
+
+    private int features;
+
+    public PacketMultipartFeatures() {
+    }
+
+    public PacketMultipartFeatures(int features) {
+        this.features = features;
+    }
+
+    @Override
+    public void handleClient(PlayerEntity player) {
+        MultipartNetworkHandler.sendToServer(new PacketMultipartFeatures(features & MultipartNetworkHandler.SUPPORTED_FEATURES));
+    }
+
+    @Override
+    public void handleServer(PlayerEntity player) {
+        MultipartNetworkHandler.setFeatures((PlayerEntityMP) player, features & MultipartNetworkHandler.SUPPORTED_FEATURES);
+    }
+
+    @Override
+    public void toBytes(PacketBuffer buf) {
+        buf.writeVarInt(features);
+    }
+
+    @Override
+    public void fromBytes(PacketBuffer buf) {
+        features = buf.readVarInt();
+    }
+
+}
@@ -0,0 +1,61 @@
+package mcmultipart.network;
+
+import mcmultipart.MCMultiPart;
+import mcmultipart.api.multipart.MultipartHelper;
+import mcmultipart.api.slot.IPartSlot;
+import mcmultipart.multipart.PartInfo;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.player.PlayerEntityMP;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.server.management.PlayerChunkMap;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.WorldServer;
+
+// Sent by the client when it can't apply a delta to a part's data, the server then sends all of it again
+public class PacketMultipartResync extends Packet<PacketMultipartResync> {
+
+    private BlockPos pos;
+    private IPartSlot slot;
+
+    public PacketMultipartResync() {
+    }
+
+    public PacketMultipartResync(BlockPos pos, IPartSlot slot) {
+        this.pos = pos;
+        this.slot = slot;
+    }
+
+    @Override
+    public void handleClient(PlayerEntity player) {
+    }
+
+    @Override
+    public void handleServer(PlayerEntity player) {
+        if (slot == null || !(player.world instanceof WorldServer) || !player.world.isBlockLoaded(pos)) {
+            return;
+        }
+        // Only players that were sent the changes to the chunk can have missed some
+        PlayerChunkMap manager = ((WorldServer) player.world).getPlayerChunkMap();
+        if (!manager.isPlayerWatchingChunk((PlayerEntityMP) player, pos.getX() >> 4, pos.getZ() >> 4)) {
+            return;
+        }
+        MultipartHelper.getInfo(player.world, pos, slot).ifPresent(info -> {
+            if (info instanceof PartInfo && ((PartInfo) info).requestResync()) {
+                MultipartNetworkHandler.queuePartChange(player.world, new MultipartAction.Change(info));
+            }
+        });
+    }
+
+    @Override
+    public void toBytes(PacketBuffer buf) {
+        buf.writeBlockPos(pos);
+        buf.writeVarInt(MCMultiPart.slotRegistry.getID(slot));
+    }
+
+    @Override
+    public void fromBytes(PacketBuffer buf) {
+        pos = buf.readBlockPos();
+        slot = MCMultiPart.slotRegistry.getValue(buf.readVarInt());
+    }
+
+}
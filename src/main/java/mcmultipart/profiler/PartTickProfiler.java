@@ -0,0 +1,177 @@
+package mcmultipart.profiler;
+
+import mcmultipart.MCMPConfig;
+import mcmultipart.MCMultiPart;
+import mcmultipart.block.TileMultipartContainer;
+import mcmultipart.multipart.PartInfo;
+import net.minecraft.block.Block;
+import net.minecraft.tileentity.ITickableTileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.dimension.DimensionType;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Tick time accounting for the parts in ticking containers, per part type and per position. Times are kept in a ring
+// buffer of the last WINDOW server ticks. Only touched from the server thread.
+public final class PartTickProfiler {
+
+    public static final int WINDOW = 200;
+    private static final long WARNING_INTERVAL = 60 * 20; // Ticks between watchdog warnings for the same part type
+    private static final int MAX_THROTTLE = 20;
+
+    private static boolean enabled = false;
+    private static long currentTick = 0;
+
+    private static final Map<Block, TimeStats> byType = new HashMap<>();
+    // By part instance, which doesn't change while the part stays at the same position
+    private static final Map<PartInfo, LocationStats> byLocation = new IdentityHashMap<>();
+    private static final Map<Block, Long> lastWarnings = new HashMap<>();
+
+    private PartTickProfiler() {
+    }
+
+    // Whether ticks need to be timed at all, either for the profiler or for the watchdog
+    public static boolean isActive() {
+        return enabled || MCMPConfig.profilePartTicks() || MCMPConfig.partTickBudget() > 0;
+    }
+
+    public static boolean isProfiling() {
+        return enabled || MCMPConfig.profilePartTicks();
+    }
+
+    public static void setEnabled(boolean enabled) {
+        PartTickProfiler.enabled = enabled;
+    }
+
+    public static void reset() {
+        byType.clear();
+        byLocation.clear();
+    }
+
+    public static void onServerTick() {
+        currentTick++;
+        if (currentTick % WINDOW == 0) {
+            // Forget parts and types that haven't ticked in the whole window, they'd only report 0 anyway
+            byType.values().removeIf(t -> currentTick - t.lastTick >= WINDOW);
+            byLocation.values().removeIf(t -> currentTick - t.lastTick >= WINDOW);
+        }
+    }
+
+    public static void tick(TileMultipartContainer container, PartInfo info, ITickableTileEntity ticker) {
+        if (info.consumeThrottledTick()) {
+            return;
+        }
+        long start = System.nanoTime();
+        ticker.tick();
+        long time = System.nanoTime() - start;
+
+        Block type = info.getState().getBlock();
+        if (isProfiling()) {
+            byType.computeIfAbsent(type, t -> new TimeStats()).add(currentTick, time);
+            LocationStats stats = byLocation.get(info);
+            if (stats == null) {
+                stats = new LocationStats(container.getWorld().getDimension().getType(), container.getPos(), info.getSlotID());
+                byLocation.put(info, stats);
+            }
+            stats.add(currentTick, time);
+        }
+
+        long budget = MCMPConfig.partTickBudget();
+        if (budget > 0 && time > budget) {
+            onBudgetExceeded(container, info, type, time, budget);
+        }
+    }
+
+    private static void onBudgetExceeded(TileMultipartContainer container, PartInfo info, Block type, long time, long budget) {
+        int throttle = 0;
+        if (MCMPConfig.throttleSlowParts()) {
+            throttle = (int) Math.min(time / budget, MAX_THROTTLE);
+            info.throttle(throttle);
+        }
+        Long lastWarning = lastWarnings.get(type);
+        if (lastWarning == null || currentTick - lastWarning >= WARNING_INTERVAL) {
+            lastWarnings.put(type, currentTick);
+            MCMultiPart.log.warn("Part {} at {} took {} µs to tick, over the budget of {} µs{}", type.getRegistryName(),
+                    container.getPos(), time / 1000, budget / 1000, throttle > 0 ? ", skipping its next " + throttle + " ticks" : "");
+        }
+    }
+
+    // The slowest part types and positions, one line each, averaged over the window
+    public static void report(int count, Consumer<String> output) {
+        output.accept(String.format("Part tick times over the last %d ticks%s:", WINDOW, isProfiling() ? "" : " (profiler disabled)"));
+        output.accept("By part type:");
+        report(byType, count, Block::getRegistryName, output);
+        output.accept("By position:");
+        report(byLocation, count, info -> byLocation.get(info), output);
+    }
+
+    private static <K> void report(Map<K, ? extends TimeStats> stats, int count, Function<K, Object> name,
+                                   Consumer<String> output) {
+        List<Map.Entry<K, Long>> totals = new ArrayList<>();
+        for (Map.Entry<K, ? extends TimeStats> entry : stats.entrySet()) {
+            long total = entry.getValue().getTotal(currentTick);
+            if (total > 0) {
+                totals.add(new AbstractMap.SimpleEntry<>(entry.getKey(), total));
+            }
+        }
+        totals.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        if (totals.isEmpty()) {
+            output.accept("  Nothing recorded");
+        }
+        for (int i = 0; i < Math.min(count, totals.size()); i++) {
+            Map.Entry<K, Long> entry = totals.get(i);
+            output.accept(String.format("  %s: %.3f ms/t", name.apply(entry.getKey()), entry.getValue() / (double) WINDOW / 1000000D));
+        }
+    }
+
+    private static class TimeStats {
+
+        private final long[] times = new long[WINDOW];
+        private final long[] ticks = new long[WINDOW]; // The server tick each bucket currently holds
+        long lastTick;
+
+        void add(long tick, long time) {
+            lastTick = tick;
+            int i = (int) (tick % WINDOW);
+            if (ticks[i] != tick) {
+                ticks[i] = tick;
+                times[i] = 0;
+            }
+            times[i] += time;
+        }
+
+        long getTotal(long now) {
+            long total = 0;
+            for (int i = 0; i < WINDOW; i++) {
+                if (now - ticks[i] < WINDOW) {
+                    total += times[i];
+                }
+            }
+            return total;
+        }
+
+    }
+
+    private static final class LocationStats extends TimeStats {
+
+        private final DimensionType dimension;
+        private final BlockPos pos;
+        private final int slotID;
+
+        private LocationStats(DimensionType dimension, BlockPos pos, int slotID) {
+            this.dimension = dimension;
+            this.pos = pos;
+            this.slotID = slotID;
+        }
+
+        @Override
+        public String toString() {
+            return DimensionType.getKey(dimension) + " " + pos.getX() + " " + pos.getY() + " " + pos.getZ() + " ("
+                    + MCMultiPart.slotRegistry.getValue(slotID).getRegistryName() + ")";
+        }
+
+    }
+
+}
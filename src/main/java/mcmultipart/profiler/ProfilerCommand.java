@@ -0,0 +1,57 @@
+package mcmultipart.profiler;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import mcmultipart.MCMultiPart;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.util.text.StringTextComponent;
+
+// /mcmultipart profile <start|stop|reset|report [count]|dump [count]>
+public final class ProfilerCommand {
+
+    private static final int DEFAULT_COUNT = 10;
+
+    private ProfilerCommand() {
+    }
+
+    public static void register(CommandDispatcher<CommandSource> dispatcher) {
+        dispatcher.register(Commands.literal(MCMultiPart.MODID).requires(s -> s.hasPermissionLevel(2))
+                .then(Commands.literal("profile")
+                        .then(Commands.literal("start").executes(c -> {
+                            PartTickProfiler.setEnabled(true);
+                            c.getSource().sendFeedback(new StringTextComponent("Started profiling part ticks"), true);
+                            return 1;
+                        }))
+                        .then(Commands.literal("stop").executes(c -> {
+                            PartTickProfiler.setEnabled(false);
+                            c.getSource().sendFeedback(new StringTextComponent("Stopped profiling part ticks"), true);
+                            return 1;
+                        }))
+                        .then(Commands.literal("reset").executes(c -> {
+                            PartTickProfiler.reset();
+                            c.getSource().sendFeedback(new StringTextComponent("Cleared the part tick times"), true);
+                            return 1;
+                        }))
+                        .then(Commands.literal("report")
+                                .executes(c -> report(c.getSource(), DEFAULT_COUNT))
+                                .then(Commands.argument("count", IntegerArgumentType.integer(1, 100))
+                                        .executes(c -> report(c.getSource(), IntegerArgumentType.getInteger(c, "count")))))
+                        .then(Commands.literal("dump")
+                                .executes(c -> dump(c.getSource(), DEFAULT_COUNT))
+                                .then(Commands.argument("count", IntegerArgumentType.integer(1, 1000))
+                                        .executes(c -> dump(c.getSource(), IntegerArgumentType.getInteger(c, "count")))))));
+    }
+
+    private static int report(CommandSource source, int count) {
+        PartTickProfiler.report(count, line -> source.sendFeedback(new StringTextComponent(line), false));
+        return 1;
+    }
+
+    private static int dump(CommandSource source, int count) {
+        PartTickProfiler.report(count, MCMultiPart.log::info);
+        source.sendFeedback(new StringTextComponent("Wrote the part tick times to the log"), false);
+        return 1;
+    }
+
+}
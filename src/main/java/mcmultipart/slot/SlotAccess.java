@@ -0,0 +1,73 @@
+package mcmultipart.slot;
+
+import mcmultipart.api.slot.EnumSlotAccess;
+import mcmultipart.api.slot.IPartSlot;
+
+import java.util.List;
+import java.util.Map.Entry;
+
+// An access priority list flattened into parallel arrays, with a bitmask of the slots it covers so views can skip
+// straight to the occupied ones
+public final class SlotAccess {
+
+    private static final EnumSlotAccess[] ACCESS_VALUES = EnumSlotAccess.values();
+
+    private final IPartSlot[] slots;
+    private final int[] slotIDs;
+    private final byte[] access;
+    private final long[] slotMasks;
+    private final long mask;
+    private final boolean overflow; // Some slot IDs don't fit in the mask and always have to be probed
+
+    SlotAccess(List<Entry<IPartSlot, EnumSlotAccess>> priorities) {
+        int size = priorities.size();
+        slots = new IPartSlot[size];
+        slotIDs = new int[size];
+        access = new byte[size];
+        slotMasks = new long[size];
+        long mask = 0L;
+        boolean overflow = false;
+        for (int i = 0; i < size; i++) {
+            Entry<IPartSlot, EnumSlotAccess> entry = priorities.get(i);
+            slots[i] = entry.getKey();
+            slotIDs[i] = SlotRegistry.INSTANCE.getSlotID(entry.getKey());
+            access[i] = (byte) entry.getValue().ordinal();
+            slotMasks[i] = SlotRegistry.INSTANCE.getSlotMask(slotIDs[i]);
+            mask |= slotMasks[i];
+            overflow |= slotMasks[i] == 0L;
+        }
+        this.mask = mask;
+        this.overflow = overflow;
+    }
+
+    public int size() {
+        return slots.length;
+    }
+
+    public IPartSlot getSlot(int index) {
+        return slots[index];
+    }
+
+    public int getSlotID(int index) {
+        return slotIDs[index];
+    }
+
+    public EnumSlotAccess getAccess(int index) {
+        return ACCESS_VALUES[access[index]];
+    }
+
+    public boolean isMerge(int index) {
+        return access[index] == EnumSlotAccess.MERGE.ordinal();
+    }
+
+    // 0 if the slot ID doesn't fit in a long
+    public long getSlotMask(int index) {
+        return slotMasks[index];
+    }
+
+    // True if none of the slots can be present given a bitmask of the occupied slot IDs
+    public boolean isEmpty(long occupiedSlots) {
+        return !overflow && (mask & occupiedSlots) == 0L;
+    }
+
+}
@@ -4,14 +4,19 @@ import mcmultipart.api.slot.EnumEdgeSlot;
 import mcmultipart.api.slot.EnumSlotAccess;
 import mcmultipart.api.slot.IPartSlot;
 import mcmultipart.api.slot.ISlottedContainer;
+import mcmultipart.api.slot.PartSlot;
+import mcmultipart.block.TileMultipartContainer;
 import net.minecraft.util.Direction;
-import net.minecraft.util.Direction;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraftforge.registries.ForgeRegistry;
 import net.minecraftforge.registries.RegistryManager;
 
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 public enum SlotRegistry {
 
@@ -19,15 +24,27 @@ public enum SlotRegistry {
 
     private final Map<Direction, List<Entry<IPartSlot, EnumSlotAccess>>> accessFace = new IdentityHashMap<>();
     private final Map<EnumEdgeSlot, Map<Direction, List<Entry<IPartSlot, EnumSlotAccess>>>> accessEdge = new IdentityHashMap<>();
-    private final List<Entry<IPartSlot, EnumSlotAccess>> mergeAll = new ArrayList<>();
+    private List<Entry<IPartSlot, EnumSlotAccess>> mergeAll = Collections.emptyList();
+    // The same priorities compiled for the views, indexed by face (and edge)
+    private final SlotAccess[] compiledFace = new SlotAccess[Direction.values().length];
+    private final SlotAccess[][] compiledEdge = new SlotAccess[EnumEdgeSlot.VALUES.length][Direction.values().length];
+    private SlotAccess compiledMergeAll;
+    // For each slot ID, a bitmask of the slots whose bounds can never intersect with it
+    private long[] disjointSlots = new long[0];
 
     private ForgeRegistry<IPartSlot> slotRegistry;
     private List<IPartSlot> allSlots;
 
+    // Called again whenever the slot registry is baked, as the slot IDs baked into the compiled accesses and the
+    // disjoint slot masks change when a save or server remaps them
     public void computeAccess() {
+        allSlots = null;
         List<IPartSlot> slots = getSlots();
 
+        List<Entry<IPartSlot, EnumSlotAccess>> mergeAll = new ArrayList<>();
         slots.forEach(s -> mergeAll.add(new AbstractMap.SimpleEntry<>(s, EnumSlotAccess.MERGE)));
+        this.mergeAll = Collections.unmodifiableList(mergeAll);
+        compiledMergeAll = new SlotAccess(mergeAll);
 
         for (Direction face : Direction.values()) {
             List<Entry<IPartSlot, EnumSlotAccess>> accesses = new ArrayList<>();
@@ -39,6 +56,7 @@ public enum SlotRegistry {
             }
             accesses.sort((a, b) -> Integer.compare(b.getKey().getFaceAccessPriority(face), a.getKey().getFaceAccessPriority(face)));
             accessFace.put(face, Collections.unmodifiableList(accesses));
+            compiledFace[face.getIndex()] = new SlotAccess(accesses);
         }
 
         for (EnumEdgeSlot edge : EnumEdgeSlot.VALUES) {
@@ -54,9 +72,61 @@ public enum SlotRegistry {
                 accesses.sort((a, b) -> Integer.compare(b.getKey().getEdgeAccessPriority(edge, face),
                         a.getKey().getEdgeAccessPriority(edge, face)));
                 map.put(face, Collections.unmodifiableList(accesses));
+                compiledEdge[edge.ordinal()][face.getIndex()] = new SlotAccess(accesses);
             }
             accessEdge.put(edge, map);
         }
+
+        computeDisjointSlots(slots);
+    }
+
+    private void computeDisjointSlots(List<IPartSlot> slots) {
+        int size = 0;
+        for (IPartSlot slot : slots) {
+            size = Math.max(size, getSlotID(slot) + 1);
+        }
+        long[] disjoint = new long[size];
+        for (IPartSlot slot1 : slots) {
+            AxisAlignedBB bounds1 = getSlotBounds(slot1);
+            int id1 = getSlotID(slot1);
+            for (IPartSlot slot2 : slots) {
+                if (!bounds1.intersects(getSlotBounds(slot2))) {
+                    disjoint[id1] |= getSlotMask(slot2);
+                }
+            }
+        }
+        disjointSlots = disjoint;
+    }
+
+    // The region of the block a part in the given slot is expected to stay in. Unknown slots may take up the whole block.
+    public static AxisAlignedBB getSlotBounds(IPartSlot slot) {
+        if (slot instanceof PartSlot.FaceSlot) {
+            return getHalf(((PartSlot.FaceSlot) slot).getFacing());
+        } else if (slot instanceof PartSlot.EdgeSlot) {
+            PartSlot.EdgeSlot edge = (PartSlot.EdgeSlot) slot;
+            return getHalf(edge.getFace1()).intersect(getHalf(edge.getFace2()));
+        } else if (slot instanceof PartSlot.CornerSlot) {
+            PartSlot.CornerSlot corner = (PartSlot.CornerSlot) slot;
+            return getHalf(corner.getFace1()).intersect(getHalf(corner.getFace2())).intersect(getHalf(corner.getFace3()));
+        }
+        return new AxisAlignedBB(0, 0, 0, 1, 1, 1);
+    }
+
+    private static AxisAlignedBB getHalf(Direction face) {
+        double min = face.getAxisDirection() == Direction.AxisDirection.POSITIVE ? 0.5 : 0, max = min + 0.5;
+        switch (face.getAxis()) {
+            case X:
+                return new AxisAlignedBB(min, 0, 0, max, 1, 1);
+            case Y:
+                return new AxisAlignedBB(0, min, 0, 1, max, 1);
+            default:
+                return new AxisAlignedBB(0, 0, min, 1, 1, max);
+        }
+    }
+
+    public boolean areSlotsDisjoint(int slotID1, int slotID2) {
+        long[] disjoint = this.disjointSlots;
+        return slotID1 >= 0 && slotID1 < disjoint.length && (disjoint[slotID1] & getSlotMask(slotID2)) != 0L;
     }
 
     public List<Entry<IPartSlot, EnumSlotAccess>> getAccessPriorities(Direction face) {
@@ -67,6 +137,14 @@ public enum SlotRegistry {
         return face == null || edge == null ? mergeAll : accessEdge.get(edge).get(face);
     }
 
+    public SlotAccess getAccess(Direction face) {
+        return face == null ? compiledMergeAll : compiledFace[face.getIndex()];
+    }
+
+    public SlotAccess getAccess(EnumEdgeSlot edge, Direction face) {
+        return face == null || edge == null ? compiledMergeAll : compiledEdge[edge.ordinal()][face.getIndex()];
+    }
+
     public List<IPartSlot> getSlots() {
         if (slotRegistry == null) {
             slotRegistry = (ForgeRegistry<IPartSlot>) RegistryManager.ACTIVE.getRegistry(IPartSlot.class);
@@ -84,6 +162,15 @@ public enum SlotRegistry {
         return slotRegistry.getID(slot);
     }
 
+    // Slots whose ID doesn't fit in a long bitmask return 0 and have to be checked the slow way
+    public long getSlotMask(IPartSlot slot) {
+        return getSlotMask(getSlotID(slot));
+    }
+
+    public long getSlotMask(int slotID) {
+        return slotID >= 0 && slotID < Long.SIZE ? 1L << slotID : 0L;
+    }
+
     public IPartSlot getSlotFromID(int slot) {
         if (slotRegistry == null) {
             slotRegistry = (ForgeRegistry<IPartSlot>) RegistryManager.ACTIVE.getRegistry(IPartSlot.class);
@@ -93,12 +180,12 @@ public enum SlotRegistry {
 
     public <T, O> O viewContainer(ISlottedContainer<T> container, Function<T, O> converter, Function<List<O>, O> joiner, O startVal,
                                   boolean ignoreNull, Direction face) {
-        return viewContainer(container, converter, joiner, startVal, ignoreNull, getAccessPriorities(face));
+        return viewContainer(container, converter, joiner, startVal, ignoreNull, getAccess(face));
     }
 
     public <T, O> O viewContainer(ISlottedContainer<T> container, Function<T, O> converter, Function<List<O>, O> joiner, O startVal,
                                   boolean ignoreNull, EnumEdgeSlot edge, Direction face) {
-        return viewContainer(container, converter, joiner, startVal, ignoreNull, getAccessPriorities(edge, face));
+        return viewContainer(container, converter, joiner, startVal, ignoreNull, getAccess(edge, face));
     }
 
     public <T, O> O viewContainer(ISlottedContainer<T> container, Function<T, O> converter, Function<List<O>, O> joiner, O startVal,
@@ -152,4 +239,171 @@ public enum SlotRegistry {
         return mergeList != null && !mergeList.isEmpty() ? mergeList.size() == 1 ? mergeList.get(0) : joiner.apply(mergeList) : startVal;
     }
 
+    public <T, O> O viewContainer(ISlottedContainer<T> container, Function<T, O> converter, Function<List<O>, O> joiner, O startVal,
+                                  boolean ignoreNull, SlotAccess access) {
+        long occupied = getOccupiedSlots(container);
+        if (access.isEmpty(occupied)) {
+            return startVal;
+        }
+        List<O> mergeList = null;
+        for (int i = 0; i < access.size(); i++) {
+            T element = getElement(container, access, i, occupied);
+            if (element != null) {
+                O value = converter.apply(element);
+                if (ignoreNull && value == null) {
+                    continue;
+                }
+                switch (access.getAccess(i)) {
+                    case NONE:// Shouldn't happen
+                        break;
+                    case NON_NULL:
+                        if (value != null) {
+                            if (mergeList != null) {
+                                mergeList.add(value);
+                                return joiner.apply(mergeList);
+                            } else if (startVal != null || !ignoreNull) {
+                                return joiner.apply(Arrays.asList(startVal, value));
+                            } else {
+                                return value;
+                            }
+                        }
+                        break;
+                    case MERGE:
+                        if (value != null) {
+                            if (mergeList == null) {
+                                mergeList = new ArrayList<>(4);
+                                if (startVal != null || !ignoreNull) {
+                                    mergeList.add(startVal);
+                                }
+                            }
+                            mergeList.add(value);
+                        }
+                        break;
+                    case OVERRIDE:
+                        if (mergeList != null) {
+                            mergeList.add(value);
+                            return joiner.apply(mergeList);
+                        } else if (startVal != null || !ignoreNull) {
+                            return joiner.apply(Arrays.asList(startVal, value));
+                        } else {
+                            return value;
+                        }
+                }
+            }
+        }
+        return mergeList != null && !mergeList.isEmpty() ? mergeList.size() == 1 ? mergeList.get(0) : joiner.apply(mergeList) : startVal;
+    }
+
+    // Specialized views that don't box or collect the values. Each present slot's value is reduced into the accumulator in
+    // access order, and the result is returned as soon as a NON_NULL or OVERRIDE slot has been visited, like viewContainer.
+
+    public <T> int viewContainerInt(ISlottedContainer<T> container, ToIntFunction<T> converter, IntBinaryOperator reducer, int startVal,
+                                    Direction face) {
+        return viewContainerInt(container, converter, reducer, startVal, getAccess(face));
+    }
+
+    public <T> int viewContainerInt(ISlottedContainer<T> container, ToIntFunction<T> converter, IntBinaryOperator reducer, int startVal,
+                                    EnumEdgeSlot edge, Direction face) {
+        return viewContainerInt(container, converter, reducer, startVal, getAccess(edge, face));
+    }
+
+    public <T> int viewContainerInt(ISlottedContainer<T> container, ToIntFunction<T> converter, IntBinaryOperator reducer, int startVal,
+                                    SlotAccess access) {
+        long occupied = getOccupiedSlots(container);
+        if (access.isEmpty(occupied)) {
+            return startVal;
+        }
+        int value = startVal;
+        for (int i = 0; i < access.size(); i++) {
+            T element = getElement(container, access, i, occupied);
+            if (element != null) {
+                value = reducer.applyAsInt(value, converter.applyAsInt(element));
+                if (!access.isMerge(i)) {
+                    return value;
+                }
+            }
+        }
+        return value;
+    }
+
+    // True if the predicate matches any of the visible parts, stops at the first match
+    public <T> boolean viewContainerAny(ISlottedContainer<T> container, Predicate<T> predicate, Direction face) {
+        return viewContainerBoolean(container, predicate, true, getAccess(face));
+    }
+
+    public <T> boolean viewContainerAny(ISlottedContainer<T> container, Predicate<T> predicate, EnumEdgeSlot edge, Direction face) {
+        return viewContainerBoolean(container, predicate, true, getAccess(edge, face));
+    }
+
+    // True if the predicate matches all of the visible parts (or there are none), stops at the first mismatch
+    public <T> boolean viewContainerAll(ISlottedContainer<T> container, Predicate<T> predicate, Direction face) {
+        return viewContainerBoolean(container, predicate, false, getAccess(face));
+    }
+
+    public <T> boolean viewContainerAll(ISlottedContainer<T> container, Predicate<T> predicate, EnumEdgeSlot edge, Direction face) {
+        return viewContainerBoolean(container, predicate, false, getAccess(edge, face));
+    }
+
+    public <T> boolean viewContainerBoolean(ISlottedContainer<T> container, Predicate<T> predicate, boolean any, SlotAccess access) {
+        long occupied = getOccupiedSlots(container);
+        if (access.isEmpty(occupied)) {
+            return !any;
+        }
+        for (int i = 0; i < access.size(); i++) {
+            T element = getElement(container, access, i, occupied);
+            if (element != null) {
+                if (predicate.test(element) == any) {
+                    return any;
+                }
+                if (!access.isMerge(i)) {
+                    break;
+                }
+            }
+        }
+        return !any;
+    }
+
+    // The first non-null value in access order, without merging. Null if no visible part has one.
+    public <T, O> O viewContainerFirst(ISlottedContainer<T> container, Function<T, O> converter, Direction face) {
+        return viewContainerFirst(container, converter, getAccess(face));
+    }
+
+    public <T, O> O viewContainerFirst(ISlottedContainer<T> container, Function<T, O> converter, EnumEdgeSlot edge, Direction face) {
+        return viewContainerFirst(container, converter, getAccess(edge, face));
+    }
+
+    public <T, O> O viewContainerFirst(ISlottedContainer<T> container, Function<T, O> converter, SlotAccess access) {
+        long occupied = getOccupiedSlots(container);
+        if (access.isEmpty(occupied)) {
+            return null;
+        }
+        for (int i = 0; i < access.size(); i++) {
+            T element = getElement(container, access, i, occupied);
+            if (element != null) {
+                O value = converter.apply(element);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Containers that don't track their slots may have anything anywhere
+    private static long getOccupiedSlots(ISlottedContainer<?> container) {
+        return container instanceof TileMultipartContainer ? ((TileMultipartContainer) container).getOccupiedSlotMask() : -1L;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T getElement(ISlottedContainer<T> container, SlotAccess access, int index, long occupied) {
+        long mask = access.getSlotMask(index);
+        if (mask != 0L && (occupied & mask) == 0L) {
+            return null;
+        }
+        if (container instanceof TileMultipartContainer) {
+            return (T) ((TileMultipartContainer) container).getPartInfo(access.getSlotID(index));
+        }
+        return container.get(access.getSlot(index)).orElse(null);
+    }
+
 }